@@ -4,9 +4,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "dev.rickcloudy.restapi")
 @EnableR2dbcRepositories(basePackages = "dev.rickcloudy.restapi.repository")
+@EnableScheduling
 public class RestApiApplication {
 
     public static void main(String[] args) {
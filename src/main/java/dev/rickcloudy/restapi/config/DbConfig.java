@@ -1,5 +1,6 @@
 package dev.rickcloudy.restapi.config;
 
+import dev.rickcloudy.restapi.repository.CompressedContentConverters;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import org.apache.logging.log4j.LogManager;
@@ -10,12 +11,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.r2dbc.connection.R2dbcTransactionManager;
 import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
 @Configuration
 public class DbConfig {
@@ -26,6 +32,17 @@ public class DbConfig {
     	return new R2dbcTransactionManager(connectionFactory);
     }
 
+    @Bean
+    TransactionalOperator transactionalOperator(ReactiveTransactionManager transactionManager) {
+        return TransactionalOperator.create(transactionManager);
+    }
+
+    @Bean
+    R2dbcCustomConversions r2dbcCustomConversions(DatabaseClient databaseClient) {
+        R2dbcDialect dialect = DialectResolver.getDialect(databaseClient.getConnectionFactory());
+        return R2dbcCustomConversions.of(dialect, CompressedContentConverters.all());
+    }
+
     @Bean
     ConnectionFactoryInitializer intializer(ConnectionFactory connectionFactory) {
         var initializer = new ConnectionFactoryInitializer();
@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "rickcloudy")
 @Getter
@@ -17,6 +19,25 @@ public class RickCloudyProperties {
     @Setter
     public static class Blog {
         private String blogImagesBucket;
+        private Cache cache = new Cache();
+        // Number of newest published posts kept in memory for GET /blogs/feed
+        private int feedSize = 50;
+        // Store new and updated post bodies Deflate-compressed in content_compressed. MySQL full-text search
+        // then only matches those posts by title; natural language search fills in their body matches from
+        // the in-memory search index, boolean mode does not.
+        private boolean compressContent = false;
+        // Public site the RSS/Atom feeds and the sitemap link to; posts live at {siteUrl}/blogs/{id}
+        private String siteUrl = "https://rickcloudy.com";
+        private String siteTitle = "RickCloudy";
+        // Length of each post's precomputed related posts list
+        private int relatedPosts = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofMinutes(30);
     }
 
     @Getter
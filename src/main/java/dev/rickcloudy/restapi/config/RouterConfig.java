@@ -2,6 +2,7 @@ package dev.rickcloudy.restapi.config;
 
 import dev.rickcloudy.restapi.controller.AuthHandler;
 import dev.rickcloudy.restapi.controller.BlogPostHandler;
+import dev.rickcloudy.restapi.controller.SyndicationHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -34,16 +35,25 @@ public class RouterConfig {
 				.build();
 	}
 	@Bean
-	public RouterFunction<ServerResponse> blogRoutes(BlogPostHandler handler) {
+	public RouterFunction<ServerResponse> blogRoutes(BlogPostHandler handler, SyndicationHandler syndication) {
 		return route().POST("/blogs", handler::save)
 				.POST("/blogs/images", handler::uploadBlogImage)
+				.POST("/blogs/all", handler::saveAll)
 				.PUT("/blogs/{id}", handler::update)
+				.DELETE("/blogs/{id}", handler::delete)
+				.GET("/blogs/search", handler::search)
+				.GET("/blogs/feed", handler::feed)
+				.GET("/blogs/rss.xml", syndication::rss)
+				.GET("/blogs/atom.xml", syndication::atom)
+				.GET("/sitemap.xml", syndication::sitemap)
 				.GET("/blogs/{id}", handler::findById) // Get By Id
+				.GET("/blogs/{id}/content", handler::findContentById)
+				.GET("/blogs/{id}/related", handler::related)
 				.GET("/blogs", handler::findByParams)
 				.GET("/admin/blogs", handler::findAllAdmin)
+				.GET("/admin/blogs/cache/stats", handler::cacheStats)
+				.POST("/admin/blogs/status", handler::changeStatus)
 				.GET("/admin/blogs/{id}", handler::findByIdAdmin)
-//				.PUT()
-//				.DELETE()
 //				.GET() // Get All
 //				.GET() // Search
 				.build();
@@ -2,17 +2,33 @@ package dev.rickcloudy.restapi.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
 import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.BlogStatusChangeRequest;
+import dev.rickcloudy.restapi.dto.BlogStatusChangeResult;
+import dev.rickcloudy.restapi.dto.CursorPage;
+import dev.rickcloudy.restapi.dto.PageCursor;
 import dev.rickcloudy.restapi.dto.ResponseDTO;
 import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.entity.CompressedContent;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.enums.SearchMode;
+import dev.rickcloudy.restapi.exception.HttpException;
 import dev.rickcloudy.restapi.exception.custom.InvalidJsonException;
 import dev.rickcloudy.restapi.exception.custom.UserNotFoundException;
+import dev.rickcloudy.restapi.helper.ConditionalRequests;
+import dev.rickcloudy.restapi.helper.FieldSelection;
 import dev.rickcloudy.restapi.service.BlogPostsService;
+import dev.rickcloudy.restapi.service.FeedService;
+import dev.rickcloudy.restapi.service.RelatedPostsService;
 import dev.rickcloudy.restapi.service.S3Service;
+import dev.rickcloudy.restapi.service.ViewCounter;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
@@ -20,14 +36,18 @@ import org.springframework.http.codec.multipart.FormFieldPart;
 import org.springframework.http.codec.multipart.Part;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 
@@ -37,7 +57,24 @@ public class BlogPostHandler implements Handler {
 
     private final BlogPostsService blogPostService;
     private final S3Service s3Service;
+    private final FeedService feedService;
+    private final ViewCounter viewCounter;
+    private final RelatedPostsService relatedPostsService;
+    private final ObjectMapper objectMapper;
     private static final Logger log = LogManager.getLogger(BlogPostHandler.class);
+    private static final String LIMIT_PARAM = "limit";
+    private static final String CURSOR_PARAM = "cursor";
+    private static final String QUERY_PARAM = "q";
+    private static final String MODE_PARAM = "mode";
+    private static final String INCLUDE_PARAM = "include";
+    private static final String FORMAT_PARAM = "format";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_STATUS_CHANGE_IDS = 10_000;
+    private static final MediaType MARKDOWN = new MediaType("text", "markdown", StandardCharsets.UTF_8);
+    private static final MediaType HTML = new MediaType("text", "html", StandardCharsets.UTF_8);
+    private static final List<MediaType> STREAMING_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
 
 
     @Override
@@ -89,21 +126,143 @@ public class BlogPostHandler implements Handler {
                 });
     }
 
+    /**
+     * Bulk import: one blog post JSON object per line in, one result per line out, each written as soon as its
+     * batch is stored.
+     */
     @Override
     public Mono<ServerResponse> saveAll(ServerRequest request) {
-        return null;
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(blogPostService.importBlogPosts(request.bodyToFlux(BlogPosts.class)), ResponseDTO.class);
     }
 
     @Override
     public Mono<ServerResponse> findById(ServerRequest request) {
-        return blogPostService.getBlogPostById(Long.parseLong(request.pathVariable("id")))
-                .flatMap(blogPost -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
-                        .body(Mono.just(ResponseDTO.success(blogPost, "Blog post found")), BlogPostsDTO.class));
+        Long id = Long.parseLong(request.pathVariable("id"));
+        String format = request.queryParam(FORMAT_PARAM).orElse("json");
+        if (format.equalsIgnoreCase("html")) {
+            return findHtmlById(request, id);
+        }
+        if (!format.equalsIgnoreCase("json")) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid format: " + format);
+        }
+        if (includesAuthor(request.queryParam(INCLUDE_PARAM).orElse(null))) {
+            // The cached bytes carry no author, so build this variant from the cached DTO instead
+            return blogPostService.getBlogPostById(id)
+                    .doOnNext(blogPost -> viewCounter.increment(id))
+                    .flatMap(blogPostService::withAuthor)
+                    .flatMap(blogPost -> ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(Mono.just(ResponseDTO.success(blogPost, "Blog post found")), ResponseDTO.class));
+        }
+        return blogPostService.getSerializedBlogPostById(id)
+                .doOnNext(blogPost -> viewCounter.increment(id))
+                .flatMap(blogPost -> {
+                    // The body is already serialized; wrap the cached bytes instead of encoding the DTO again
+                    boolean gzip = blogPost.getGzip() != null && acceptsGzip(request);
+                    byte[] body = gzip ? blogPost.getGzip() : blogPost.getJson();
+                    String etag = gzip ? ConditionalRequests.withEncoding(blogPost.getEtag(), "gzip") : blogPost.getEtag();
+                    return ConditionalRequests.checkNotModified(request, etag, blogPost.getLastModified(), () -> {
+                        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                        if (gzip) {
+                            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                        }
+                        return writeBytes(request, response, body);
+                    });
+                });
+    }
+
+    /**
+     * The raw post body. Bodies stored Deflate-compressed are passed through untouched to clients that
+     * accept {@code deflate}, and only inflated for the others.
+     */
+    public Mono<ServerResponse> findContentById(ServerRequest request) {
+        Long id = Long.parseLong(request.pathVariable("id"));
+        return blogPostService.getBlogPostContent(id)
+                .flatMap(blogPost -> {
+                    CompressedContent stored = blogPost.getCompressedContent();
+                    boolean deflate = stored != null && stored.isDeflated() && acceptsEncoding(request, "deflate");
+                    byte[] body = deflate ? stored.payload() : blogPost.contentText().getBytes(StandardCharsets.UTF_8);
+                    ZonedDateTime lastModified = blogPost.getUpdatedAt() != null ? blogPost.getUpdatedAt() : blogPost.getCreatedAt();
+                    String etag = ConditionalRequests.etag(id, lastModified != null ? lastModified.toInstant() : null);
+                    if (deflate) {
+                        etag = ConditionalRequests.withEncoding(etag, "deflate");
+                    }
+                    return ConditionalRequests.checkNotModified(request, etag, lastModified, () -> {
+                        ServerResponse.BodyBuilder response = ServerResponse.ok()
+                                .contentType(MARKDOWN)
+                                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                        if (deflate) {
+                            response.header(HttpHeaders.CONTENT_ENCODING, "deflate");
+                        }
+                        return writeBytes(request, response, body);
+                    });
+                });
+    }
+
+    // The HTML was rendered when the post was written; this only copies it out
+    private Mono<ServerResponse> findHtmlById(ServerRequest request, Long id) {
+        return blogPostService.getRenderedBlogPostById(id)
+                .doOnNext(blogPost -> viewCounter.increment(id))
+                .flatMap(blogPost -> {
+                    byte[] body = blogPost.getContentHtml().getBytes(StandardCharsets.UTF_8);
+                    ZonedDateTime lastModified = blogPost.getUpdatedAt() != null ? blogPost.getUpdatedAt() : blogPost.getCreatedAt();
+                    String etag = ConditionalRequests.etag(body);
+                    return ConditionalRequests.checkNotModified(request, etag, lastModified,
+                            () -> writeBytes(request, ServerResponse.ok().contentType(HTML), body));
+                });
+    }
+
+    private Mono<ServerResponse> writeBytes(ServerRequest request, ServerResponse.BodyBuilder response, byte[] body) {
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        return response.contentLength(body.length)
+                .body(BodyInserters.fromDataBuffers(Mono.fromSupplier(() -> bufferFactory.wrap(body))));
+    }
+
+    private boolean acceptsGzip(ServerRequest request) {
+        return acceptsEncoding(request, "gzip");
+    }
+
+    /**
+     * Whether Accept-Encoding allows {@code encoding}, by name or through {@code *}. A q-value of 0 refuses the
+     * coding, and the coding's own entry wins over {@code *}.
+     */
+    private boolean acceptsEncoding(ServerRequest request, String encoding) {
+        Double named = null;
+        Double wildcard = null;
+        for (String value : request.headers().header(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] params = coding.split(";");
+                String name = params[0].trim();
+                double quality = 1.0;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.toLowerCase().startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(param.substring(2).trim());
+                        } catch (NumberFormatException e) {
+                            quality = 0.0;
+                        }
+                    }
+                }
+                if (name.equalsIgnoreCase(encoding)) {
+                    named = quality;
+                } else if (name.equals("*")) {
+                    wildcard = quality;
+                }
+            }
+        }
+        Double quality = named != null ? named : wildcard;
+        return quality != null && quality > 0;
     }
 
     @Override
     public Mono<ServerResponse> update(ServerRequest request) {
         Long id = Long.parseLong(request.pathVariable("id")); // Extract ID from path variable
+        Optional<Long> ifMatch = ConditionalRequests.ifMatchVersion(request);
 
         return request.multipartData()
                 .flatMap(multiPartMap -> {
@@ -139,19 +298,25 @@ public class BlogPostHandler implements Handler {
                             .map(FormFieldPart::value);
 
                     // Combine extracted BlogPosts and image URLs, then call update service
-                    return blogPostMono.flatMap(blogPost ->
-                            blogPostService.updateBlogPost(id, blogPost, imageUrls)
-                                    .flatMap(updatedBlogPost -> ServerResponse.ok()
-                                            .contentType(MediaType.APPLICATION_JSON)
-                                            .body(Mono.just(ResponseDTO.success(updatedBlogPost, "Blog post updated successfully")), ResponseDTO.class))
-                    );
+                    return blogPostMono.flatMap(blogPost -> {
+                        // If-Match wins over the version in the body; the service requires one of them
+                        ifMatch.ifPresent(blogPost::setVersion);
+                        return blogPostService.updateBlogPost(id, blogPost, imageUrls)
+                                .flatMap(updatedBlogPost -> ServerResponse.ok()
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .eTag(ConditionalRequests.versionETag(updatedBlogPost.getVersion()))
+                                        .body(Mono.just(ResponseDTO.success(updatedBlogPost, "Blog post updated successfully")), ResponseDTO.class));
+                    });
                 });
     }
 
 
     @Override
     public Mono<ServerResponse> delete(ServerRequest request) {
-        return null;
+        return blogPostService.deleteBlogPost(Long.parseLong(request.pathVariable("id")))
+                .then(ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Mono.just(ResponseDTO.success(null, "Blog post deleted")), ResponseDTO.class));
     }
 
     @Override
@@ -160,16 +325,98 @@ public class BlogPostHandler implements Handler {
     }
 
     public Mono<ServerResponse> findAllAdmin(ServerRequest request) {
-        return blogPostService.getAllBlogPostsAdmin()
-                .collectList() // Convert Flux<BlogPostsDTO> to Mono<List<BlogPostsDTO>>
-                .flatMap(res -> ServerResponse.ok().body(Mono.just(ResponseDTO.success(res, "All blog posts retrieved")),
-                        ResponseDTO.class));
+        Optional<MediaType> streamingType = streamingMediaType(request);
+        if (streamingType.isPresent()) {
+            rejectPaging(request.queryParam(LIMIT_PARAM).orElse(null), request.queryParam(CURSOR_PARAM).orElse(null));
+            // Write each post as soon as it is read instead of buffering the whole table
+            return ServerResponse.ok()
+                    .contentType(streamingType.get())
+                    .body(blogPostService.getAllBlogPostsAdmin(), BlogPostSummaryDTO.class);
+        }
+
+        int limit = pageLimit(request.queryParam(LIMIT_PARAM).orElse(null));
+        PageCursor cursor = PageCursor.decode(request.queryParam(CURSOR_PARAM).orElse(null));
+
+        return blogPostService.getBlogPostsPageAdmin(cursor, limit)
+                .flatMap(page -> ConditionalRequests.checkNotModified(request, pageETag(page), lastModified(page.getItems()),
+                        () -> ServerResponse.ok().body(Mono.just(ResponseDTO.success(page.getItems(),
+                                "All blog posts retrieved", page.getNextCursor())), ResponseDTO.class)));
+    }
+
+    /**
+     * Ranked search over the in-process index; answers from memory without touching the database.
+     */
+    public Mono<ServerResponse> search(ServerRequest request) {
+        String query = request.queryParam(QUERY_PARAM).orElse("");
+        if (query.isBlank()) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        int limit = pageLimit(request.queryParam(LIMIT_PARAM).orElse(null));
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(ResponseDTO.success(blogPostService.searchIndex(query, limit), "Search results")),
+                        ResponseDTO.class);
+    }
+
+    public Mono<ServerResponse> feed(ServerRequest request) {
+        int limit = pageLimit(request.queryParam(LIMIT_PARAM).orElse(null));
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(ResponseDTO.success(feedService.latest(limit), "Latest blog posts")), ResponseDTO.class);
+    }
+
+    public Mono<ServerResponse> related(ServerRequest request) {
+        return relatedPostsService.findRelated(Long.parseLong(request.pathVariable("id")))
+                .collectList()
+                .flatMap(posts -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Mono.just(ResponseDTO.success(posts, "Related blog posts")), ResponseDTO.class));
+    }
+
+    public Mono<ServerResponse> cacheStats(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(ResponseDTO.success(blogPostService.getCacheStats(), "Blog post cache statistics")),
+                        ResponseDTO.class);
+    }
+
+    public Mono<ServerResponse> changeStatus(ServerRequest request) {
+        return request.bodyToMono(BlogStatusChangeRequest.class)
+                .switchIfEmpty(Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "Missing request body")))
+                .flatMap(change -> {
+                    if (change.getIds() == null || change.getIds().isEmpty() || change.getIds().contains(null)) {
+                        return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "ids must be a non-empty list of blog post ids"));
+                    }
+                    if (change.getIds().size() > MAX_STATUS_CHANGE_IDS) {
+                        return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "At most " + MAX_STATUS_CHANGE_IDS + " ids per request"));
+                    }
+                    if (change.getStatus() == null) {
+                        return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "status is required"));
+                    }
+                    // Scheduling needs a publishAt per post, which only PUT /blogs/{id} takes
+                    if (change.getStatus() == BlogStatus.SCHEDULED) {
+                        return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "Posts cannot be scheduled in bulk"));
+                    }
+                    return blogPostService.changeStatus(change.getIds(), change.getStatus()).collectList();
+                })
+                .flatMap(results -> {
+                    long updated = results.stream()
+                            .filter(result -> result.getOutcome() == BlogStatusChangeResult.Outcome.UPDATED)
+                            .count();
+                    return ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(Mono.just(ResponseDTO.success(results, "Updated " + updated + " of " + results.size()
+                                    + " blog posts")), ResponseDTO.class);
+                });
     }
 
     public Mono<ServerResponse> findByIdAdmin(ServerRequest request) {
+        // The version ETag is also what PUT /blogs/{id} expects back in If-Match
         return blogPostService.getBlogPostByIdAdmin(Long.parseLong(request.pathVariable("id")))
-                .flatMap(blogPost -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
-                        .body(Mono.just(ResponseDTO.success(blogPost, "Blog post found")), BlogPostsDTO.class));
+                .flatMap(blogPost -> ConditionalRequests.checkNotModified(request,
+                        ConditionalRequests.versionETag(blogPost.getVersion()), null,
+                        () -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                                .body(Mono.just(ResponseDTO.success(blogPost, "Blog post found")), BlogPostsDTO.class)));
     }
 
     @Override
@@ -180,15 +427,156 @@ public class BlogPostHandler implements Handler {
                 .stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get(0))); // Convert MultiValueMap to Map
 
+        // Paging parameters are not blog post fields, so take them out before filtering
+        String limitParam = params.remove(LIMIT_PARAM);
+        String cursorParam = params.remove(CURSOR_PARAM);
+        int limit = pageLimit(limitParam);
+        PageCursor cursor = PageCursor.decode(cursorParam);
+        FieldSelection fields = FieldSelection.parse(params.remove(FieldSelection.PARAM), BlogPostsService.SUMMARY_FIELDS);
+
+        String query = params.remove(QUERY_PARAM);
+        SearchMode mode = searchMode(params.remove(MODE_PARAM));
+        boolean withAuthors = includesAuthor(params.remove(INCLUDE_PARAM));
+        if (query != null) {
+            return fullTextSearch(request, query, mode, cursor, params, limit, fields, withAuthors);
+        }
+
+        Optional<MediaType> streamingType = streamingMediaType(request);
+        if (streamingType.isPresent()) {
+            rejectPaging(limitParam, cursorParam);
+            Flux<BlogPostSummaryDTO> posts = blogPostService.findByQueryParam(params, fields);
+            return ServerResponse.ok()
+                    .contentType(streamingType.get())
+                    .body((withAuthors ? blogPostService.withAuthors(posts) : posts)
+                            .map(post -> fields.project(objectMapper, post)), Object.class);
+        }
+
         // Call the service to handle the query parameters
-        return blogPostService.findByQueryParam(params)
-                .collectList()  // Collect results into a list
-                .flatMap(posts -> {
-                    return ServerResponse.ok()
-                            .contentType(MediaType.APPLICATION_JSON)
-                            .body(Mono.just(ResponseDTO.success(posts, "Blog posts retrieved")), ResponseDTO.class);  // Return
-                    // 200 OK with the posts
-                });
+        return blogPostService.findPageByQueryParam(params, cursor, limit, fields)
+                .flatMap(page -> withAuthors ? withAuthors(page) : Mono.just(page))
+                .flatMap(page -> ConditionalRequests.checkNotModified(request, pageETag(page), lastModified(page.getItems()),
+                        () -> ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(Mono.just(ResponseDTO.success(fields.project(objectMapper, page.getItems()),
+                                        "Blog posts retrieved", page.getNextCursor())), ResponseDTO.class)));  // 200 OK with the posts, or 304
+    }
+
+    private Mono<ServerResponse> fullTextSearch(ServerRequest request, String query, SearchMode mode, PageCursor cursor,
+                                                Map<String, String> filters, int limit, FieldSelection fields,
+                                                boolean withAuthors) {
+        if (query.isBlank()) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        // Results are ordered by relevance, which the (created_at, id) cursor and the column filters cannot follow
+        if (cursor != null || !filters.isEmpty()) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "q can only be combined with mode, limit and fields");
+        }
+        Flux<BlogPostSummaryDTO> results = blogPostService.searchBlogPosts(query.trim(), mode, limit);
+        if (withAuthors) {
+            results = blogPostService.withAuthors(results);
+        }
+
+        Optional<MediaType> streamingType = streamingMediaType(request);
+        if (streamingType.isPresent()) {
+            return ServerResponse.ok()
+                    .contentType(streamingType.get())
+                    .body(results.map(post -> fields.project(objectMapper, post)), Object.class);
+        }
+        return results.collectList()
+                .flatMap(posts -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Mono.just(ResponseDTO.success(fields.project(objectMapper, posts), "Blog posts retrieved")),
+                                ResponseDTO.class));
+    }
+
+    private Mono<CursorPage<BlogPostSummaryDTO>> withAuthors(CursorPage<BlogPostSummaryDTO> page) {
+        return blogPostService.withAuthors(Flux.fromIterable(page.getItems()))
+                .collectList()
+                .map(posts -> new CursorPage<>(posts, page.getNextCursor()));
+    }
+
+    // Only "author" can be embedded for now; anything else is rejected rather than silently ignored
+    private boolean includesAuthor(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        for (String value : include.split(",")) {
+            if (!value.trim().equals("author")) {
+                throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid include: " + value.trim());
+            }
+        }
+        return true;
+    }
+
+    private SearchMode searchMode(String mode) {
+        if (mode == null || mode.isBlank()) {
+            return SearchMode.NATURAL;
+        }
+        try {
+            return SearchMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid search mode: " + mode);
+        }
+    }
+
+    /**
+     * Version-based tag for a page: any post added, removed, re-statused or edited changes it without the
+     * page having to be serialized first.
+     */
+    private String pageETag(CursorPage<BlogPostSummaryDTO> page) {
+        List<Object> parts = new ArrayList<>();
+        for (BlogPostSummaryDTO post : page.getItems()) {
+            parts.add(post.getId());
+            parts.add(post.getStatus());
+            parts.add(post.getUpdatedAt() != null ? post.getUpdatedAt().toInstant() : null);
+            parts.add(post.getCoverImage() != null ? post.getCoverImage().getId() : null);
+            // Embedded authors are not versioned, so their values go into the tag as they are
+            parts.add(post.getAuthor());
+        }
+        parts.add(page.getNextCursor());
+        return ConditionalRequests.etag(parts);
+    }
+
+    private ZonedDateTime lastModified(List<BlogPostSummaryDTO> posts) {
+        ZonedDateTime lastModified = null;
+        for (BlogPostSummaryDTO post : posts) {
+            lastModified = ConditionalRequests.latest(lastModified,
+                    post.getUpdatedAt() != null ? post.getUpdatedAt() : post.getCreatedAt());
+        }
+        return lastModified;
+    }
+
+    /**
+     * Returns the streaming media type the client explicitly asked for, if any. Wildcard Accept headers
+     * keep the regular paged JSON envelope.
+     */
+    private Optional<MediaType> streamingMediaType(ServerRequest request) {
+        List<MediaType> accepted = request.headers().accept();
+        return STREAMING_MEDIA_TYPES.stream()
+                .filter(streaming -> accepted.stream().anyMatch(streaming::equalsTypeAndSubtype))
+                .findFirst();
+    }
+
+    // A stream is every matching post; quietly ignoring limit or cursor would hand back more than was asked for
+    private void rejectPaging(String limit, String cursor) {
+        if (limit != null || cursor != null) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "limit and cursor only apply to paged JSON listings, not to streams");
+        }
+    }
+
+    private int pageLimit(String limit) {
+        if (limit == null || limit.isBlank()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            int value = Integer.parseInt(limit.trim());
+            if (value < 1 || value > MAX_PAGE_SIZE) {
+                throw new HttpException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid limit: " + limit);
+        }
     }
 
     public Mono<ServerResponse> uploadBlogImage(ServerRequest request) {
@@ -0,0 +1,54 @@
+package dev.rickcloudy.restapi.controller;
+
+import dev.rickcloudy.restapi.helper.ConditionalRequests;
+import dev.rickcloudy.restapi.service.SyndicationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Serves the feed and sitemap documents straight from {@link SyndicationService}'s cached bytes.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyndicationHandler {
+    private static final MediaType RSS = new MediaType("application", "rss+xml", StandardCharsets.UTF_8);
+    private static final MediaType ATOM = new MediaType("application", "atom+xml", StandardCharsets.UTF_8);
+    private static final MediaType XML = new MediaType("application", "xml", StandardCharsets.UTF_8);
+    // Crawlers and feed readers poll; let them and any shared cache reuse the document for a few minutes
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final SyndicationService syndicationService;
+
+    public Mono<ServerResponse> rss(ServerRequest request) {
+        return syndicationService.rss().flatMap(document -> respond(request, document, RSS));
+    }
+
+    public Mono<ServerResponse> atom(ServerRequest request) {
+        return syndicationService.atom().flatMap(document -> respond(request, document, ATOM));
+    }
+
+    public Mono<ServerResponse> sitemap(ServerRequest request) {
+        return syndicationService.sitemap().flatMap(document -> respond(request, document, XML));
+    }
+
+    private Mono<ServerResponse> respond(ServerRequest request, SyndicationService.Document document, MediaType type) {
+        return ConditionalRequests.checkNotModified(request, document.getEtag(), document.getLastModified(), () -> {
+            DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+            return ServerResponse.ok()
+                    .contentType(type)
+                    .contentLength(document.getBody().length)
+                    .cacheControl(CACHE_CONTROL)
+                    .body(BodyInserters.fromDataBuffers(Mono.fromSupplier(() -> bufferFactory.wrap(document.getBody()))));
+        });
+    }
+}
@@ -1,7 +1,11 @@
 package dev.rickcloudy.restapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rickcloudy.restapi.dto.UserDTO;
 import dev.rickcloudy.restapi.entity.Users;
 import dev.rickcloudy.restapi.exception.HttpException;
+import dev.rickcloudy.restapi.helper.ConditionalRequests;
+import dev.rickcloudy.restapi.helper.FieldSelection;
 import dev.rickcloudy.restapi.mapper.UserMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,7 +24,11 @@ import dev.rickcloudy.restapi.service.UserService;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
 
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -30,6 +38,7 @@ public class UserHandler implements Handler {
 	private final UserService userService;
 	private final UserMapper mapper;
 	private final Validator validator;
+	private final ObjectMapper objectMapper;
 	private final Logger LOG = LogManager.getLogger(UserHandler.class);
 
 
@@ -67,9 +76,10 @@ public class UserHandler implements Handler {
 
 	public Mono<ServerResponse> findById(ServerRequest req) {
 		return userService.findById(Long.valueOf(req.pathVariable("id")))
-				.flatMap(res -> ServerResponse.ok()
-						.body(Mono.just(ResponseDTO.success(res, "User found")), ResponseDTO.class)
-				);
+				.flatMap(res -> ConditionalRequests.checkNotModified(req, etag(List.of(res)), res.getUpdatedAt(),
+						() -> ServerResponse.ok()
+								.body(Mono.just(ResponseDTO.success(res, "User found")), ResponseDTO.class)
+				));
 	}
 
 	@Override
@@ -127,9 +137,10 @@ public class UserHandler implements Handler {
 	public Mono<ServerResponse> findAll(ServerRequest request) {
 		return userService.findAll()
 				.collectList()
-				.flatMap(res -> ServerResponse.ok()
-						.body(Mono.just(ResponseDTO.success(res, "All users retrieved")), ResponseDTO.class)
-				);
+				.flatMap(res -> ConditionalRequests.checkNotModified(request, etag(res), lastModified(res),
+						() -> ServerResponse.ok()
+								.body(Mono.just(ResponseDTO.success(res, "All users retrieved")), ResponseDTO.class)
+				));
 	}
 
 	@Override
@@ -138,11 +149,33 @@ public class UserHandler implements Handler {
 		Map<String, String> params = new HashMap<>();
 		request.queryParams().forEach((key, value) -> params.put(key, value.get(0)));
 
+		FieldSelection fields = FieldSelection.parse(params.remove(FieldSelection.PARAM), UserService.USER_FIELDS);
+
 		// Call the service method
-		return userService.findByParams(params)
+		return userService.findByParams(params, fields)
 				.collectList()
-				.flatMap(users -> ServerResponse.ok()
-						.body(Mono.just(ResponseDTO.success(users, "Users retrieved by parameters")), ResponseDTO.class)
-				);
+				.flatMap(users -> ConditionalRequests.checkNotModified(request, etag(users), lastModified(users),
+						() -> ServerResponse.ok()
+								.body(Mono.just(ResponseDTO.success(fields.project(objectMapper, users),
+										"Users retrieved by parameters")), ResponseDTO.class)
+				));
+	}
+
+	// Users are small, so the tag hashes every exposed field rather than trusting second-precision updated_at
+	private String etag(List<UserDTO> users) {
+		List<Object> parts = new ArrayList<>();
+		for (UserDTO user : users) {
+			parts.addAll(Arrays.asList(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(),
+					user.getUsername(), user.getStatus(), user.getUpdatedAt() != null ? user.getUpdatedAt().toInstant() : null));
+		}
+		return ConditionalRequests.etag(parts);
+	}
+
+	private ZonedDateTime lastModified(List<UserDTO> users) {
+		ZonedDateTime lastModified = null;
+		for (UserDTO user : users) {
+			lastModified = ConditionalRequests.latest(lastModified, user.getUpdatedAt());
+		}
+		return lastModified;
 	}
 }
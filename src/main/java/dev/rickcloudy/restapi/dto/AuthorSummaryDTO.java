@@ -0,0 +1,20 @@
+package dev.rickcloudy.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The author fields shown next to a blog post.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthorSummaryDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String username;
+}
@@ -0,0 +1,17 @@
+package dev.rickcloudy.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One record of a bulk import: its zero-based position in the request body and, once stored, its new id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlogImportResult {
+    private long index;
+    private Long id;
+    private String title;
+}
@@ -0,0 +1,35 @@
+package dev.rickcloudy.restapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.rickcloudy.restapi.entity.BlogImages;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+/**
+ * List view of a blog post: everything a listing shows, without the content body.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlogPostSummaryDTO {
+    private Long id;
+    private String title;
+    private String excerpt;
+    private Integer wordCount;
+    private Long viewCount;
+    private Integer readingTimeMinutes;
+    private Long authorId;
+    // Only filled when the client asks for it with ?include=author
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AuthorSummaryDTO author;
+    private BlogStatus status;
+    private BlogImages coverImage;
+    private ZonedDateTime createdAt;
+    private ZonedDateTime updatedAt;
+}
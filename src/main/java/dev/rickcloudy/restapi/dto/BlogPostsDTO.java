@@ -1,5 +1,7 @@
 package dev.rickcloudy.restapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import dev.rickcloudy.restapi.entity.BlogImages;
 import dev.rickcloudy.restapi.enums.BlogStatus;
 import jakarta.validation.constraints.NotBlank;
@@ -11,7 +13,7 @@ import lombok.NoArgsConstructor;
 import java.time.ZonedDateTime;
 import java.util.List;
 
-@Builder
+@Builder(toBuilder = true)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,8 +21,22 @@ public class BlogPostsDTO {
     private Long id;
     private String title;
     private String content;
+    private String excerpt;
+    private Integer wordCount;
+    private Long viewCount;
+    // Served on its own with ?format=html rather than doubling the size of every JSON response
+    @JsonIgnore
+    private String contentHtml;
+    private List<TocEntry> tableOfContents;
+    private Integer readingTimeMinutes;
     private Long authorId;
+    // Only filled when the client asks for it with ?include=author
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AuthorSummaryDTO author;
     private BlogStatus status;
+    private ZonedDateTime publishAt;
+    // Send it back (or as If-Match) when updating the post
+    private Long version;
     private List<BlogImages> images;
     private ZonedDateTime createdAt;
     private ZonedDateTime updatedAt;
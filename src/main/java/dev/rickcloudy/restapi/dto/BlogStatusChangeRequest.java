@@ -0,0 +1,12 @@
+package dev.rickcloudy.restapi.dto;
+
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BlogStatusChangeRequest {
+    private List<Long> ids;
+    private BlogStatus status;
+}
@@ -0,0 +1,26 @@
+package dev.rickcloudy.restapi.dto;
+
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a bulk status change did to one post.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlogStatusChangeResult {
+    public enum Outcome {
+        UPDATED,
+        // Already had the requested status
+        UNCHANGED,
+        NOT_FOUND
+    }
+
+    private Long id;
+    private Outcome outcome;
+    // The status before the change; null when the post does not exist
+    private BlogStatus previousStatus;
+}
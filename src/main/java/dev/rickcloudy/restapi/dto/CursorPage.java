@@ -0,0 +1,32 @@
+package dev.rickcloudy.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing plus the cursor of the following page, if any.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * Builds a page from a result fetched with {@code limit + 1} rows: the extra row only tells us
+     * that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, PageCursor> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        PageCursor next = cursorOf.apply(items.get(items.size() - 1));
+        return new CursorPage<>(items, next != null ? next.encode() : null);
+    }
+}
@@ -0,0 +1,57 @@
+package dev.rickcloudy.restapi.dto;
+
+import dev.rickcloudy.restapi.exception.HttpException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position over (created_at, id). Clients only ever see the encoded form.
+ * <p>
+ * created_at is nullable and MySQL sorts NULLs last in descending order, so a row without one gets an id-only
+ * cursor ({@code createdAt} null) that pages on through the rows without created_at.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PageCursor {
+    private final ZonedDateTime createdAt;
+    private final Long id;
+
+    public static PageCursor of(ZonedDateTime createdAt, Long id) {
+        if (id == null) {
+            return null;
+        }
+        return new PageCursor(createdAt, id);
+    }
+
+    public String encode() {
+        String raw = (createdAt != null ? String.valueOf(createdAt.toInstant().toEpochMilli()) : "") + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long id = Long.parseLong(raw.substring(separator + 1));
+            if (separator == 0) {
+                return new PageCursor(null, id);
+            }
+            long epochMillis = Long.parseLong(raw.substring(0, separator));
+            return new PageCursor(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+}
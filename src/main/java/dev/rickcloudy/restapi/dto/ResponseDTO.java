@@ -1,5 +1,6 @@
 package dev.rickcloudy.restapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,11 +15,16 @@ public class ResponseDTO<T> {
 	private boolean success;
 	private T data;
 	private String message;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String nextCursor;
 	
 	public static <T> ResponseDTO<T> success(T data, String message) {
-		return new ResponseDTO<T>(true, data, message);
+		return new ResponseDTO<T>(true, data, message, null);
+	}
+	public static <T> ResponseDTO<T> success(T data, String message, String nextCursor) {
+		return new ResponseDTO<T>(true, data, message, nextCursor);
 	}
 	public static <T> ResponseDTO<T> fail(T data, String message) {
-		return new ResponseDTO<T>(false, data, message);
+		return new ResponseDTO<T>(false, data, message, null);
 	}
 }
@@ -0,0 +1,14 @@
+package dev.rickcloudy.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class SearchHit {
+    private final Long id;
+    private final String title;
+    private final double score;
+}
@@ -0,0 +1,22 @@
+package dev.rickcloudy.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The final JSON bytes of a {@code GET /blogs/{id}} response, ready to be written as-is. {@code gzip} is only
+ * computed for bodies large enough to benefit from it and is {@code null} otherwise. {@code version} is the
+ * post's row version, so an older response never replaces a newer one in the cache.
+ */
+@Getter
+@AllArgsConstructor
+public class SerializedBlogPost {
+    private final Long id;
+    private final Long version;
+    private final ZonedDateTime lastModified;
+    private final String etag;
+    private final byte[] json;
+    private final byte[] gzip;
+}
@@ -0,0 +1,17 @@
+package dev.rickcloudy.restapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One heading of a rendered post; {@code anchor} is the id of the heading element in the HTML.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TocEntry {
+    private int level;
+    private String text;
+    private String anchor;
+}
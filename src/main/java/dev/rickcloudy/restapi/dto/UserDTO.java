@@ -3,6 +3,7 @@ package dev.rickcloudy.restapi.dto;
 import dev.rickcloudy.restapi.enums.UserStatus;
 import lombok.*;
 
+import java.time.ZonedDateTime;
 import java.util.Objects;
 
 @Getter
@@ -18,6 +19,7 @@ public class UserDTO {
     private String email;
     private String username;
     private UserStatus status;
+    private ZonedDateTime updatedAt;
 
     @Override
     public boolean equals(Object o) {
@@ -1,5 +1,6 @@
 package dev.rickcloudy.restapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import dev.rickcloudy.restapi.enums.BlogStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,7 +9,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.MappedCollection;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -28,12 +32,41 @@ public class BlogPosts {
     private String title;
     @NotBlank(message = "Content must not be blank")
     private String content;
+    // Set instead of content when rickcloudy.blog.compress-content is on, see BlogPostsContentCallback
+    @Column("content_compressed")
+    @JsonIgnore
+    private CompressedContent compressedContent;
+    // Derived from content on every save, see BlogPostsSummaryCallback
+    private String excerpt;
+    private Integer wordCount;
+    // Rendered from content by MarkdownRenderer whenever the post is written
+    private String contentHtml;
+    private String tableOfContents;
+    private Integer readingTimeMinutes;
+    // Written only by ViewCounter's batched flush, so regular saves never overwrite pending counts
+    @ReadOnlyProperty
+    private Long viewCount;
     @NotNull(message = "Author must not be blank")
     private Long authorId;
     private BlogStatus status;
+    // When a SCHEDULED post goes live; kept afterwards as its publication time
+    private ZonedDateTime publishAt;
+    // Bumped on every write; saves only match the version the edit was based on, see BlogPostsService.updateBlogPost
+    @Version
+    private Long version;
     private ZonedDateTime createdAt;
     private ZonedDateTime updatedAt;
 
+    /**
+     * The body whichever way it was stored; compressed bodies are only inflated here.
+     */
+    public String contentText() {
+        if (content != null) {
+            return content;
+        }
+        return compressedContent != null ? compressedContent.text() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,116 @@
+package dev.rickcloudy.restapi.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A post body as stored in {@code blog_posts.content_compressed}: one codec marker byte followed by the
+ * payload. Short bodies are kept as raw UTF-8 because Deflate would not make them smaller.
+ * <p>
+ * The Deflate payload uses the zlib wrapper, which is exactly what HTTP calls {@code Content-Encoding: deflate},
+ * so it can be sent to clients as-is. Text is decoded on first use only.
+ */
+public final class CompressedContent {
+    public static final byte RAW = 0;
+    public static final byte DEFLATE = 1;
+    private static final int MIN_DEFLATE_BYTES = 512;
+
+    private final byte[] bytes;
+    private volatile String text;
+
+    private CompressedContent(byte[] bytes, String text) {
+        this.bytes = bytes;
+        this.text = text;
+    }
+
+    public static CompressedContent of(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_DEFLATE_BYTES) {
+            byte[] deflated = deflate(utf8);
+            if (deflated.length < utf8.length) {
+                return new CompressedContent(withMarker(DEFLATE, deflated), text);
+            }
+        }
+        return new CompressedContent(withMarker(RAW, utf8), text);
+    }
+
+    public static CompressedContent fromBytes(byte[] bytes) {
+        if (bytes.length == 0 || (bytes[0] != RAW && bytes[0] != DEFLATE)) {
+            throw new IllegalArgumentException("Unknown content codec");
+        }
+        return new CompressedContent(bytes, null);
+    }
+
+    /**
+     * Marker byte plus payload, as written to the column.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public boolean isDeflated() {
+        return bytes[0] == DEFLATE;
+    }
+
+    public byte[] payload() {
+        return Arrays.copyOfRange(bytes, 1, bytes.length);
+    }
+
+    public String text() {
+        String decoded = text;
+        if (decoded == null) {
+            byte[] payload = payload();
+            decoded = new String(isDeflated() ? inflate(payload) : payload, StandardCharsets.UTF_8);
+            text = decoded;
+        }
+        return decoded;
+    }
+
+    private static byte[] withMarker(byte codec, byte[] payload) {
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = codec;
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed content");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
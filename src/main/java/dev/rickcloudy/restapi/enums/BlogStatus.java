@@ -4,7 +4,9 @@ public enum BlogStatus {
     DRAFT,
     PUBLISHED,
     DELETED,
-    ARCHIVED;
+    ARCHIVED,
+    // Goes live on its own at publish_at, see PublishScheduler
+    SCHEDULED;
 
 
     public static BlogStatus fromString(String status) {
@@ -0,0 +1,23 @@
+package dev.rickcloudy.restapi.enums;
+
+/**
+ * MySQL FULLTEXT modes for searching blog posts. The index covers title and content, and posts stored
+ * compressed (rickcloudy.blog.compress-content) have no content there: MySQL matches them by title only.
+ * NATURAL makes up for it with body matches from the in-memory BM25 index; BOOLEAN does not, as that index
+ * does not understand its operators.
+ */
+public enum SearchMode {
+    NATURAL("IN NATURAL LANGUAGE MODE"),
+    BOOLEAN("IN BOOLEAN MODE");
+
+    private final String modifier;
+
+    SearchMode(String modifier) {
+        this.modifier = modifier;
+    }
+
+    // The MATCH ... AGAINST modifier; it cannot be a bind parameter, so it comes from this fixed set only
+    public String getModifier() {
+        return modifier;
+    }
+}
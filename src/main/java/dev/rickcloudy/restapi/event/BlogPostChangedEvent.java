@@ -0,0 +1,23 @@
+package dev.rickcloudy.restapi.event;
+
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published once a blog post write has committed. {@code blogPost} is the state after the change.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BlogPostChangedEvent {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final BlogPostsDTO blogPost;
+}
@@ -0,0 +1,136 @@
+package dev.rickcloudy.restapi.helper;
+
+import dev.rickcloudy.restapi.exception.HttpException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags and {@code If-None-Match} / {@code If-Modified-Since} handling for the read endpoints, and
+ * version ETags with {@code If-Match} for the write endpoints.
+ */
+public final class ConditionalRequests {
+
+    private static final char SEPARATOR = '\u001f';
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Answers 304 when the request's validators still match, otherwise builds the response with the
+     * supplier. The ETag and Last-Modified headers are added to the exchange by the check itself, so
+     * the 200 response carries them too.
+     */
+    public static Mono<ServerResponse> checkNotModified(ServerRequest request, String etag, ZonedDateTime lastModified,
+                                                        Supplier<Mono<ServerResponse>> response) {
+        Mono<ServerResponse> notModified = lastModified != null
+                ? request.checkNotModified(lastModified.toInstant(), etag)
+                : request.checkNotModified(etag);
+        return notModified.switchIfEmpty(Mono.defer(response));
+    }
+
+    public static String etag(byte[] body) {
+        return quote(sha256(body));
+    }
+
+    public static String etag(Object... parts) {
+        return etag(Arrays.asList(parts));
+    }
+
+    public static String etag(Iterable<?> parts) {
+        StringBuilder builder = new StringBuilder();
+        for (Object part : parts) {
+            builder.append(part).append(SEPARATOR);
+        }
+        return etag(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Strong ETags are per representation, so a content-coded body gets its own tag.
+     */
+    public static String withEncoding(String etag, String encoding) {
+        return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+    }
+
+    /**
+     * The ETag of a row version, as served by the admin endpoints and expected back in {@code If-Match}.
+     */
+    public static String versionETag(Long version) {
+        return quote(String.valueOf(version));
+    }
+
+    /**
+     * The row version a write is based on, from the version ETags in {@code If-Match}; weak tags count too,
+     * since only the version is compared. {@code *} names no version. Any other tag, such as the content
+     * hash the public read endpoints send, cannot match the current version and fails with 412.
+     */
+    public static Optional<Long> ifMatchVersion(ServerRequest request) {
+        List<String> tags = request.headers().header(HttpHeaders.IF_MATCH).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .toList();
+        if (tags.isEmpty() || tags.equals(List.of("*"))) {
+            return Optional.empty();
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : tags) {
+            versionOf(tag).ifPresent(versions::add);
+        }
+        if (versions.isEmpty()) {
+            throw new HttpException(HttpStatus.PRECONDITION_FAILED, "If-Match does not name a version of this resource");
+        }
+        if (versions.size() > 1) {
+            throw new HttpException(HttpStatus.BAD_REQUEST, "If-Match must name a single version");
+        }
+        return Optional.of(versions.iterator().next());
+    }
+
+    private static Optional<Long> versionOf(String tag) {
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Optional.of(Long.parseLong(tag.substring(1, tag.length() - 1)));
+            } catch (NumberFormatException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static ZonedDateTime latest(ZonedDateTime current, ZonedDateTime candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        return candidate != null && candidate.isAfter(current) ? candidate : current;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,89 @@
+package dev.rickcloudy.restapi.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.rickcloudy.restapi.exception.HttpException;
+import org.springframework.http.HttpStatus;
+
+import java.util.*;
+
+/**
+ * The fields a client asked for with {@code ?fields=a,b,c}, checked against an allow-list. It narrows both
+ * the SQL column list and the JSON written back.
+ */
+public final class FieldSelection {
+    public static final String PARAM = "fields";
+    public static final FieldSelection ALL = new FieldSelection(Collections.emptySet());
+
+    // Empty means every field
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(selected));
+    }
+
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    public boolean includes(String field) {
+        return fields.isEmpty() || fields.contains(field);
+    }
+
+    /**
+     * Snake-case columns to SELECT: the selected fields that are backed by a column, plus the
+     * {@code required} columns the caller needs regardless (keys, cursor and ETag inputs).
+     * {@code all} is returned unchanged when no selection was made.
+     */
+    public List<String> columns(Collection<String> all, String... required) {
+        if (fields.isEmpty()) {
+            return List.copyOf(all);
+        }
+        Set<String> columns = new LinkedHashSet<>(Arrays.asList(required));
+        for (String field : fields) {
+            String column = camelCaseToSnakeCase(field);
+            if (all.contains(column)) {
+                columns.add(column);
+            }
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Returns {@code value} as-is, or as a JSON object holding only the selected fields.
+     */
+    public Object project(ObjectMapper objectMapper, Object value) {
+        if (fields.isEmpty()) {
+            return value;
+        }
+        ObjectNode node = objectMapper.valueToTree(value);
+        node.retain(fields);
+        return node;
+    }
+
+    public List<Object> project(ObjectMapper objectMapper, List<?> values) {
+        return values.stream().map(value -> project(objectMapper, value)).toList();
+    }
+
+    private static String camelCaseToSnakeCase(String camelCase) {
+        return camelCase.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.rickcloudy.restapi.helper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keys due at a point in time, bucketed by tick into a fixed ring of slots so scheduling, cancelling and
+ * collecting what is due cost O(1) per key rather than a scan or a heap.
+ * <p>
+ * A key lands in slot {@code tick % slots}; keys more than one revolution ahead share the slot with nearer
+ * ones and simply stay put until their own tick comes round. The wheel is driven from outside by
+ * {@link #advance(Instant)}, which returns everything whose tick has passed.
+ */
+public class HashedTimerWheel<K> {
+    private final long tickMillis;
+    private final int mask;
+    // Each slot maps a key to its deadline tick
+    private final Map<K, Long>[] slots;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    // The last tick whose keys were returned
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(Duration tick, int slotCount, Instant start) {
+        if (tick.toMillis() <= 0 || slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("The tick must be positive and the slot count a power of two");
+        }
+        this.tickMillis = tick.toMillis();
+        this.mask = slotCount - 1;
+        this.slots = new Map[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new LinkedHashMap<>();
+        }
+        this.currentTick = tickOf(start);
+    }
+
+    /**
+     * Schedules {@code key} for the first tick at or after {@code due}, replacing any earlier schedule. Keys
+     * already due fire on the next advance.
+     */
+    public synchronized void schedule(K key, Instant due) {
+        cancel(key);
+        long tick = Math.max(Math.floorDiv(due.toEpochMilli() + tickMillis - 1, tickMillis), currentTick + 1);
+        slots[(int) (tick & mask)].put(key, tick);
+        deadlines.put(key, tick);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Long tick = deadlines.remove(key);
+        if (tick == null) {
+            return false;
+        }
+        slots[(int) (tick & mask)].remove(key);
+        return true;
+    }
+
+    /**
+     * Moves the wheel to {@code now} and removes and returns every key whose tick has passed.
+     */
+    public synchronized List<K> advance(Instant now) {
+        long target = tickOf(now);
+        if (target <= currentTick) {
+            return List.of();
+        }
+        List<K> due = new ArrayList<>();
+        // After a long pause one revolution visits every slot, so there is no point walking further
+        long steps = Math.min(target - currentTick, slots.length);
+        for (long tick = currentTick + 1; tick <= currentTick + steps; tick++) {
+            Iterator<Map.Entry<K, Long>> entries = slots[(int) (tick & mask)].entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<K, Long> entry = entries.next();
+                if (entry.getValue() <= target) {
+                    due.add(entry.getKey());
+                    deadlines.remove(entry.getKey());
+                    entries.remove();
+                }
+            }
+        }
+        currentTick = target;
+        return due;
+    }
+
+    public synchronized boolean contains(K key) {
+        return deadlines.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    private long tickOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+    }
+}
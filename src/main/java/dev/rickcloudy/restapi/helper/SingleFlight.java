@@ -0,0 +1,46 @@
+package dev.rickcloudy.restapi.helper;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: while a load is in flight, later callers subscribe to the same
+ * cached {@link Mono} instead of starting their own. The entry is dropped as soon as the load terminates, so
+ * nothing is cached beyond the flight itself.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<V> flight = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                AtomicReference<Mono<V>> self = new AtomicReference<>();
+                Mono<V> shared = Mono.defer(loader)
+                        .doFinally(signal -> inFlight.remove(k, self.get()))
+                        .cache();
+                self.set(shared);
+                return shared;
+            });
+            if (!leader[0]) {
+                coalesced.increment();
+            }
+            return flight;
+        });
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -1,14 +1,23 @@
 package dev.rickcloudy.restapi.mapper;
 
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
 import dev.rickcloudy.restapi.dto.BlogPostsDTO;
 import dev.rickcloudy.restapi.entity.BlogPosts;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = TableOfContentsMapper.class)
 public interface BlogPostMapper {
     BlogPostMapper INSTANCE = Mappers.getMapper(BlogPostMapper.class);
+    @Mapping(target = "author", ignore = true)
+    @Mapping(target = "content", expression = "java(blogPosts.contentText())")
     BlogPostsDTO blogPostsToBlogPostsDTO(BlogPosts blogPosts);
+    @Mapping(target = "compressedContent", ignore = true)
     BlogPosts dtoToBlogPosts(BlogPostsDTO blogPostsDTO);
+    @Mapping(target = "coverImage", ignore = true)
+    @Mapping(target = "author", ignore = true)
+    BlogPostSummaryDTO blogPostsToSummary(BlogPosts blogPosts);
+    @Mapping(target = "coverImage", ignore = true)
+    BlogPostSummaryDTO dtoToSummary(BlogPostsDTO blogPostsDTO);
 }
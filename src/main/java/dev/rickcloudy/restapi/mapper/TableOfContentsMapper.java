@@ -0,0 +1,43 @@
+package dev.rickcloudy.restapi.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rickcloudy.restapi.dto.TocEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The table of contents is stored as a JSON array in {@code blog_posts.table_of_contents}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TableOfContentsMapper {
+    private static final TypeReference<List<TocEntry>> TOC_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    public List<TocEntry> fromJson(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, TOC_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid stored table of contents", e);
+        }
+    }
+
+    public String toJson(List<TocEntry> toc) {
+        if (toc == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(toc);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write table of contents", e);
+        }
+    }
+}
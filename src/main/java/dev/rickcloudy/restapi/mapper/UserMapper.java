@@ -1,5 +1,6 @@
 package dev.rickcloudy.restapi.mapper;
 
+import dev.rickcloudy.restapi.dto.AuthorSummaryDTO;
 import dev.rickcloudy.restapi.dto.UserDTO;
 import dev.rickcloudy.restapi.entity.Users;
 import org.mapstruct.Mapper;
@@ -24,4 +25,6 @@ public interface UserMapper {
     @Mapping(source = "username", target = "username")
     @Mapping(source = "status", target = "status")
     UserDTO userToDto(Users user);
+
+    AuthorSummaryDTO userToAuthorSummary(Users user);
 }
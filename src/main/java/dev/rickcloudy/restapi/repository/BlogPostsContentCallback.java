@@ -0,0 +1,39 @@
+package dev.rickcloudy.restapi.repository;
+
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.entity.CompressedContent;
+import org.reactivestreams.Publisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Moves the body into {@code content_compressed} when compressed storage is enabled. Runs after
+ * {@link BlogPostsSummaryCallback}, which still needs the plain text.
+ */
+@Component
+@Order(2)
+public class BlogPostsContentCallback implements BeforeConvertCallback<BlogPosts> {
+    private final RickCloudyProperties properties;
+
+    public BlogPostsContentCallback(RickCloudyProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Publisher<BlogPosts> onBeforeConvert(BlogPosts blogPost, SqlIdentifier table) {
+        // Rows loaded without the body keep whatever is stored
+        if (blogPost.getContent() != null) {
+            if (properties.getBlog().isCompressContent()) {
+                blogPost.setCompressedContent(CompressedContent.of(blogPost.getContent()));
+                blogPost.setContent(null);
+            } else {
+                blogPost.setCompressedContent(null);
+            }
+        }
+        return Mono.just(blogPost);
+    }
+}
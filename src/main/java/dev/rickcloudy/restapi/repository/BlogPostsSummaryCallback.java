@@ -0,0 +1,43 @@
+package dev.rickcloudy.restapi.repository;
+
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import org.reactivestreams.Publisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps {@code excerpt} and {@code word_count} in step with {@code content} on every insert and update, so
+ * listings can read the summary columns alone.
+ */
+@Component
+@Order(1)
+public class BlogPostsSummaryCallback implements BeforeConvertCallback<BlogPosts> {
+    public static final int EXCERPT_LENGTH = 280;
+
+    @Override
+    public Publisher<BlogPosts> onBeforeConvert(BlogPosts blogPost, SqlIdentifier table) {
+        // Partial rows (e.g. loaded with the summary columns only) must not wipe the stored summary
+        if (blogPost.getContent() != null) {
+            blogPost.setExcerpt(excerpt(blogPost.getContent()));
+            blogPost.setWordCount(wordCount(blogPost.getContent()));
+        }
+        return Mono.just(blogPost);
+    }
+
+    public static String excerpt(String content) {
+        String text = content.strip().replaceAll("\\s+", " ");
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', EXCERPT_LENGTH - 1);
+        return text.substring(0, cut > 0 ? cut : EXCERPT_LENGTH - 1) + "…";
+    }
+
+    public static int wordCount(String content) {
+        String text = content.strip();
+        return text.isEmpty() ? 0 : text.split("\\s+").length;
+    }
+}
@@ -0,0 +1,96 @@
+package dev.rickcloudy.restapi.repository;
+
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.service.RelatedPostsIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The precomputed related posts in {@code blog_related}, one row per (post, rank).
+ */
+@Repository
+@RequiredArgsConstructor
+public class BlogRelatedRepository {
+    // Served by the (blog_post_id, rank_position) primary key
+    private static final String FIND_RELATED = """
+            SELECT p.id, p.title, p.excerpt, p.word_count, p.view_count, p.reading_time_minutes, p.author_id,
+                   p.status, p.created_at, p.updated_at
+            FROM blog_related r
+            JOIN blog_posts p ON p.id = r.related_post_id
+            WHERE r.blog_post_id = :id AND p.status = :status
+            ORDER BY r.rank_position
+            """;
+
+    private final R2dbcEntityTemplate template;
+
+    public Flux<BlogPosts> findRelated(Long blogPostId) {
+        return template.getDatabaseClient()
+                .sql(FIND_RELATED)
+                .bind("id", blogPostId)
+                .bind("status", BlogStatus.PUBLISHED.name())
+                .map((row, metadata) -> template.getConverter().read(BlogPosts.class, row, metadata))
+                .all();
+    }
+
+    // Rows of posts that were unpublished or deleted while no incremental update saw it
+    public Mono<Long> deleteUnpublished() {
+        return template.getDatabaseClient()
+                .sql("DELETE r FROM blog_related r JOIN blog_posts p ON p.id = r.blog_post_id WHERE p.status <> :status")
+                .bind("status", BlogStatus.PUBLISHED.name())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Replaces the rows of every post in {@code related} (an empty list clears a post) with one DELETE and one
+     * multi-row INSERT, in a single transaction.
+     */
+    @Transactional
+    public Mono<Void> replace(Map<Long, RelatedPostsIndex.Neighbour[]> related) {
+        if (related.isEmpty()) {
+            return Mono.empty();
+        }
+        DatabaseClient client = template.getDatabaseClient();
+        List<Long> ids = new ArrayList<>(related.keySet());
+        Mono<Long> delete = client.sql("DELETE FROM blog_related WHERE blog_post_id IN (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+
+        StringBuilder sql = new StringBuilder("INSERT INTO blog_related (blog_post_id, related_post_id, score, rank_position) VALUES ");
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, RelatedPostsIndex.Neighbour[]> entry : related.entrySet()) {
+            RelatedPostsIndex.Neighbour[] neighbours = entry.getValue();
+            for (int rank = 0; rank < neighbours.length; rank++) {
+                int row = rows.size();
+                sql.append(row == 0 ? "" : ", ")
+                        .append("(:post").append(row).append(", :related").append(row)
+                        .append(", :score").append(row).append(", :rank").append(row).append(")");
+                rows.add(new Object[]{entry.getKey(), neighbours[rank].getPostId(), neighbours[rank].getScore(), rank});
+            }
+        }
+        Mono<Long> insert = Mono.empty();
+        if (!rows.isEmpty()) {
+            DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+            for (int row = 0; row < rows.size(); row++) {
+                Object[] values = rows.get(row);
+                spec = spec.bind("post" + row, values[0])
+                        .bind("related" + row, values[1])
+                        .bind("score" + row, values[2])
+                        .bind("rank" + row, values[3]);
+            }
+            insert = spec.fetch().rowsUpdated();
+        }
+        return delete.then(insert).then();
+    }
+}
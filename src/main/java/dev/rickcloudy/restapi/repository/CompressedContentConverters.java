@@ -0,0 +1,49 @@
+package dev.rickcloudy.restapi.repository;
+
+import dev.rickcloudy.restapi.entity.CompressedContent;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Maps {@link CompressedContent} to and from the BLOB column. The driver may hand BLOBs back as either
+ * {@code byte[]} or {@link ByteBuffer}, so both are read.
+ */
+public final class CompressedContentConverters {
+
+    private CompressedContentConverters() {
+    }
+
+    public static List<Object> all() {
+        return List.of(new Writer(), new BytesReader(), new ByteBufferReader());
+    }
+
+    @WritingConverter
+    static class Writer implements Converter<CompressedContent, byte[]> {
+        @Override
+        public byte[] convert(CompressedContent source) {
+            return source.getBytes();
+        }
+    }
+
+    @ReadingConverter
+    static class BytesReader implements Converter<byte[], CompressedContent> {
+        @Override
+        public CompressedContent convert(byte[] source) {
+            return CompressedContent.fromBytes(source);
+        }
+    }
+
+    @ReadingConverter
+    static class ByteBufferReader implements Converter<ByteBuffer, CompressedContent> {
+        @Override
+        public CompressedContent convert(ByteBuffer source) {
+            byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return CompressedContent.fromBytes(bytes);
+        }
+    }
+}
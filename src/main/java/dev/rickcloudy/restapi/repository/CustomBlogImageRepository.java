@@ -4,11 +4,20 @@ import dev.rickcloudy.restapi.entity.BlogImages;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.Set;
 
 public interface CustomBlogImageRepository {
     Mono<Void> deleteByBlogPostId(Long blogPostId);
     Flux<BlogImages> findByBlogPostId(Long blogPostId);
+    Flux<BlogImages> findByBlogPostIds(Collection<Long> blogPostIds);
     Flux<BlogImages> findAllByImageKeys(Set<String> imageKeys);
     Mono<BlogImages> findByUrl(String url);
+    // Images of those of the given posts that are still DELETED
+    Flux<BlogImages> findByDeletedBlogPostIds(Collection<Long> blogPostIds);
+    Flux<Long> findDeletedBlogPostIdsWithImages();
+    // S3 keys of removed images, kept in blog_image_deletions until the object is gone
+    Mono<Long> queueDeletions(Collection<String> imageKeys);
+    Flux<String> findQueuedDeletions(int limit);
+    Mono<Long> removeQueuedDeletion(String imageKey);
 }
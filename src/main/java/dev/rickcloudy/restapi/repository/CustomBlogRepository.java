@@ -1,10 +1,52 @@
 package dev.rickcloudy.restapi.repository;
 
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.PageCursor;
 import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.enums.SearchMode;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public interface CustomBlogRepository {
+    // Everything a listing needs; content is left behind so list queries never read the article bodies
+    List<String> SUMMARY_COLUMNS =
+            List.of("id", "title", "excerpt", "word_count", "view_count", "reading_time_minutes", "author_id", "status",
+                    "created_at", "updated_at");
+
     Flux<BlogPosts> findByParams(Map<String, String> params);
+    Flux<BlogPosts> findSummariesByParams(Map<String, String> params);
+    Flux<BlogPosts> findSummariesByParams(Map<String, String> params, List<String> columns);
+    Flux<BlogPosts> findByParams(Map<String, String> params, PageCursor cursor, int limit);
+    Flux<BlogPosts> findByParams(Map<String, String> params, PageCursor cursor, int limit, List<String> columns);
+    Mono<BlogPostsDTO> findByIdWithImages(Long id);
+    // Just the body columns plus what is needed to authorize and tag them
+    Mono<BlogPosts> findContentById(Long id);
+    // FULLTEXT over (title, content); posts stored compressed have no content there, so only their titles match
+    Flux<BlogPosts> search(String query, SearchMode mode, BlogStatus status, int limit);
+    // Summary rows of those of the given posts that are stored compressed
+    Flux<BlogPosts> findCompressedSummaries(Collection<Long> ids, BlogStatus status);
+    Mono<Long> addViewCounts(Map<Long, Long> deltas);
+    // Only id and the body columns of posts whose excerpt is still missing
+    Flux<BlogPosts> findMissingExcerpts(int limit);
+    Mono<Long> updateExcerpt(Long id, String excerpt);
+    Mono<Long> updateRenderedContent(Long id, String contentHtml, String tableOfContents, int readingTimeMinutes);
+    // Only id and publish_at, for loading the publish scheduler
+    Flux<BlogPosts> findScheduled();
+    Flux<BlogPosts> findScheduled(Collection<Long> ids);
+    // Ids of those of the given posts that are due, with the rows locked until the transaction ends
+    Flux<Long> findDueForUpdate(Collection<Long> ids, ZonedDateTime now);
+    Mono<Long> publishScheduled(Collection<Long> ids, ZonedDateTime now);
+    // Only id and status, with the rows locked until the transaction ends
+    Flux<BlogPosts> findStatusesForUpdate(Collection<Long> ids);
+    Mono<Long> updateStatus(Collection<Long> ids, BlogStatus status);
+    // 1 if the post existed and was not deleted yet, otherwise 0
+    Mono<Long> markDeleted(Long id);
+    // One multi-row INSERT; the generated ids come back in the order of the posts
+    Mono<List<Long>> insertAll(List<BlogPosts> blogPosts);
 }
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -127,6 +128,17 @@ public class UserRepository {
 				);
     }
 
+	public Flux<Users> findAllByIds(Collection<Long> ids) {
+		if (ids.isEmpty()) {
+			return Flux.empty();
+		}
+		return template.select(Users.class)
+				.from("users")
+				.matching(query(where("id").in(ids))
+						.columns("id", "first_name", "last_name", "username", "status"))
+				.all();
+	}
+
 	public Flux<Users> findAll() {
 		return template.select(Users.class)
 				.from("users")
@@ -152,6 +164,13 @@ public class UserRepository {
 						).exists();
 	}
 	public Flux<Users> findByParams(Map<String, String> params) {
+		return findByParams(params, List.of());
+	}
+
+	/**
+	 * Same as {@link #findByParams(Map)} but reads only {@code columns}; an empty list reads every column.
+	 */
+	public Flux<Users> findByParams(Map<String, String> params, List<String> columns) {
 		Criteria criteria = Criteria.empty();
 		List<String> fieldNames = Arrays.stream(Users.class.getDeclaredFields())
 				.map(Field::getName)
@@ -166,7 +185,7 @@ public class UserRepository {
 
 		return template.select(Users.class)
 				.from("users")
-				.matching(Query.query(criteria))
+				.matching(Query.query(criteria).columns(columns))
 				.all();
 	}
 
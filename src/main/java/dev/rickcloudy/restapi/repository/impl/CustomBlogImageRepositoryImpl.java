@@ -8,12 +8,16 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import static org.springframework.data.relational.core.query.Criteria.where;
@@ -21,6 +25,24 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 @Component
 @RequiredArgsConstructor
 public class CustomBlogImageRepositoryImpl implements CustomBlogImageRepository {
+    private static final String FIND_BY_DELETED_BLOG_POST_IDS = """
+            SELECT i.*
+            FROM blog_images i
+            JOIN blog_posts p ON p.id = i.blog_post_id
+            WHERE i.blog_post_id IN (:ids) AND p.status = 'DELETED'
+            """;
+
+    private static final String FIND_DELETED_BLOG_POST_IDS_WITH_IMAGES = """
+            SELECT DISTINCT i.blog_post_id
+            FROM blog_images i
+            JOIN blog_posts p ON p.id = i.blog_post_id
+            WHERE p.status = 'DELETED'
+            """;
+
+    private static final String FIND_QUEUED_DELETIONS = """
+            SELECT image_key FROM blog_image_deletions ORDER BY created_at LIMIT :limit
+            """;
+
     private final R2dbcEntityTemplate template;
     private Logger log = LogManager.getLogger(CustomBlogImageRepositoryImpl.class);
     @Override
@@ -40,6 +62,19 @@ public class CustomBlogImageRepositoryImpl implements CustomBlogImageRepository
                 .doOnNext(res -> log.debug("Find By Blog Id Result {}", res));
     }
 
+    @Override
+    public Flux<BlogImages> findByBlogPostIds(Collection<Long> blogPostIds) {
+        if (blogPostIds == null || blogPostIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        // One IN (...) query for the whole window instead of one query per blog post
+        return template.select(BlogImages.class)
+                .from("blog_images")
+                .matching(Query.query(where("blog_post_id").in(blogPostIds)))
+                .all();
+    }
+
     @Override
     public Flux<BlogImages> findAllByImageKeys(Set<String> imageKeys) {
         // Check if the set is empty and return Flux.empty() if it is
@@ -71,4 +106,62 @@ public class CustomBlogImageRepositoryImpl implements CustomBlogImageRepository
                 .matching(Query.query(Criteria.where("image_url").is(cleanedUrl)))
                 .one();  // Ensure execution of the query
     }
+
+    @Override
+    public Flux<BlogImages> findByDeletedBlogPostIds(Collection<Long> blogPostIds) {
+        if (blogPostIds == null || blogPostIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return template.getDatabaseClient()
+                .sql(FIND_BY_DELETED_BLOG_POST_IDS)
+                .bind("ids", blogPostIds)
+                .map((row, metadata) -> template.getConverter().read(BlogImages.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<Long> findDeletedBlogPostIdsWithImages() {
+        return template.getDatabaseClient()
+                .sql(FIND_DELETED_BLOG_POST_IDS_WITH_IMAGES)
+                .map(row -> row.get("blog_post_id", Long.class))
+                .all();
+    }
+
+    /**
+     * Queues the keys with one {@code INSERT IGNORE ... VALUES (?), (?)}; a key already waiting stays queued once.
+     */
+    @Override
+    public Mono<Long> queueDeletions(Collection<String> imageKeys) {
+        if (imageKeys == null || imageKeys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<String> keys = new ArrayList<>(imageKeys);
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO blog_image_deletions (image_key) VALUES ");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:key").append(i).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString());
+        for (int i = 0; i < keys.size(); i++) {
+            spec = spec.bind("key" + i, keys.get(i));
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    @Override
+    public Flux<String> findQueuedDeletions(int limit) {
+        return template.getDatabaseClient()
+                .sql(FIND_QUEUED_DELETIONS)
+                .bind("limit", limit)
+                .map(row -> row.get("image_key", String.class))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> removeQueuedDeletion(String imageKey) {
+        return template.getDatabaseClient()
+                .sql("DELETE FROM blog_image_deletions WHERE image_key = :key")
+                .bind("key", imageKey)
+                .fetch()
+                .rowsUpdated();
+    }
 }
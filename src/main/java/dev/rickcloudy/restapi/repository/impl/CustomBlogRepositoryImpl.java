@@ -1,69 +1,478 @@
 package dev.rickcloudy.restapi.repository.impl;
 
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.PageCursor;
+import dev.rickcloudy.restapi.entity.BlogImages;
 import dev.rickcloudy.restapi.entity.BlogPosts;
 import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.enums.ImageType;
+import dev.rickcloudy.restapi.enums.SearchMode;
 import dev.rickcloudy.restapi.exception.HttpException;
+import dev.rickcloudy.restapi.mapper.BlogPostMapper;
 import dev.rickcloudy.restapi.repository.CustomBlogRepository;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.lang.reflect.Field;
-import java.util.Arrays;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.LongStream;
 
 @Component
 @RequiredArgsConstructor
 public class CustomBlogRepositoryImpl implements CustomBlogRepository {
     private static Logger log = LogManager.getLogger(CustomBlogRepositoryImpl.class);
 
+    private static final String FIND_BY_ID_WITH_IMAGES = """
+            SELECT p.*,
+                   i.id AS img_id, i.blog_post_id AS img_blog_post_id, i.image_url AS img_image_url,
+                   i.image_key AS img_image_key, i.alt AS img_alt, i.caption AS img_caption,
+                   i.credit AS img_credit, i.type AS img_type,
+                   i.created_at AS img_created_at, i.updated_at AS img_updated_at
+            FROM blog_posts p
+            LEFT JOIN blog_images i ON i.blog_post_id = p.id
+            WHERE p.id = :id
+            ORDER BY i.id
+            """;
+
+    // %1$s is the search mode modifier; the FULLTEXT index on (title, content) serves both MATCH clauses
+    private static final String SEARCH = """
+            SELECT p.id, p.title, p.excerpt, p.word_count, p.view_count, p.reading_time_minutes, p.author_id, p.status,
+                   p.created_at, p.updated_at,
+                   MATCH(p.title, p.content) AGAINST(:query %1$s) AS relevance
+            FROM blog_posts p
+            WHERE MATCH(p.title, p.content) AGAINST(:query %1$s)
+              AND p.status = :status
+            ORDER BY relevance DESC, p.id DESC
+            LIMIT :limit
+            """;
+
+    // updated_at = updated_at keeps ON UPDATE CURRENT_TIMESTAMP from treating a backfill as an edit
+    private static final String UPDATE_RENDERED_CONTENT = """
+            UPDATE blog_posts
+            SET content_html = :html, table_of_contents = :toc, reading_time_minutes = :minutes, updated_at = updated_at
+            WHERE id = :id AND content_html IS NULL
+            """;
+
+    // Like the rendered content backfill; a row saved meanwhile already has its excerpt and is left alone
+    private static final String UPDATE_EXCERPT = """
+            UPDATE blog_posts
+            SET excerpt = :excerpt, updated_at = updated_at
+            WHERE id = :id AND excerpt IS NULL
+            """;
+
+    // The status and publish_at checks make a late or repeated batch a no-op for posts already flipped or rescheduled
+    private static final String PUBLISH_SCHEDULED = """
+            UPDATE blog_posts
+            SET status = 'PUBLISHED', version = version + 1
+            WHERE id IN (:ids) AND status = 'SCHEDULED' AND publish_at <= :now
+            """;
+
+    // A locking read sees the latest committed row, so a batch that waited for another one finds nothing left due
+    private static final String FIND_DUE_FOR_UPDATE = """
+            SELECT id FROM blog_posts
+            WHERE id IN (:ids) AND status = 'SCHEDULED' AND publish_at <= :now
+            FOR UPDATE
+            """;
+
+    private static final String FIND_STATUSES_FOR_UPDATE = """
+            SELECT id, status FROM blog_posts WHERE id IN (:ids) FOR UPDATE
+            """;
+
+    // Everything a new row gets from the application; id, view_count and the timestamps' defaults come from MySQL
+    private static final List<String> INSERT_COLUMNS = List.of(
+            "title", "content", "content_compressed", "excerpt", "word_count", "content_html", "table_of_contents",
+            "reading_time_minutes", "author_id", "status", "publish_at", "created_at", "updated_at");
+
+    // The query keys listings can filter on and their columns
+    private static final Map<String, String> FILTER_COLUMNS = Map.of(
+            "id", "id",
+            "title", "title",
+            "authorId", "author_id",
+            "status", "status");
+
+    // Default listing order; (status, created_at) and (author_id, status, created_at) serve it without a filesort
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("created_at"), Sort.Order.desc("id"));
+
     private final R2dbcEntityTemplate template;
+    private final BlogPostMapper mapper;
+    // The excerpt and content callbacks, in order; a hand-written INSERT has to run them itself
+    private final List<BeforeConvertCallback<BlogPosts>> beforeConvertCallbacks;
     @Override
     public Flux<BlogPosts> findByParams(Map<String, String> params) {
-        Criteria criteria = Criteria.empty();
-        // Get the field names of the BlogPosts class
-        List<String> fieldNames = Arrays.stream(BlogPosts.class.getDeclaredFields())
-                .map(Field::getName)
-                .toList();
+        return Mono.fromCallable(() -> toCriteria(params))
+                .flatMapMany(criteria -> template.select(BlogPosts.class)
+                        .from("blog_posts")
+                        .matching(Query.query(criteria).sort(KEYSET_ORDER))
+                        .all());
+    }
+
+    @Override
+    public Flux<BlogPosts> findSummariesByParams(Map<String, String> params) {
+        return findSummariesByParams(params, SUMMARY_COLUMNS);
+    }
+
+    @Override
+    public Flux<BlogPosts> findSummariesByParams(Map<String, String> params, List<String> columns) {
+        return Mono.fromCallable(() -> toCriteria(params))
+                .flatMapMany(criteria -> template.select(BlogPosts.class)
+                        .from("blog_posts")
+                        .matching(Query.query(criteria).columns(columns).sort(KEYSET_ORDER))
+                        .all());
+    }
+
+    /**
+     * One keyset page of summary rows, see {@link #SUMMARY_COLUMNS}.
+     */
+    @Override
+    public Flux<BlogPosts> findByParams(Map<String, String> params, PageCursor cursor, int limit) {
+        return findByParams(params, cursor, limit, SUMMARY_COLUMNS);
+    }
+
+    /**
+     * One keyset page reading only {@code columns}, which must include id and created_at for the cursor.
+     */
+    @Override
+    public Flux<BlogPosts> findByParams(Map<String, String> params, PageCursor cursor, int limit, List<String> columns) {
+        return Mono.fromCallable(() -> {
+                    Criteria criteria = toCriteria(params);
+                    if (cursor != null) {
+                        criteria = criteria.and(after(cursor));
+                    }
+                    return Query.query(criteria).columns(columns).sort(KEYSET_ORDER).limit(limit);
+                })
+                .flatMapMany(query -> template.select(BlogPosts.class)
+                        .from("blog_posts")
+                        .matching(query)
+                        .all());
+    }
+
+    /**
+     * Keyset predicate: rows strictly after the cursor in (created_at DESC, id DESC) order. MySQL sorts rows
+     * without created_at last, so they follow every dated cursor and an id-only cursor pages among them alone.
+     */
+    private static Criteria after(PageCursor cursor) {
+        if (cursor.getCreatedAt() == null) {
+            return Criteria.where("created_at").isNull().and("id").lessThan(cursor.getId());
+        }
+        return Criteria.where("created_at").lessThan(cursor.getCreatedAt())
+                .or(Criteria.where("created_at").is(cursor.getCreatedAt()).and("id").lessThan(cursor.getId()))
+                .or(Criteria.where("created_at").isNull());
+    }
 
+    private Criteria toCriteria(Map<String, String> params) {
+        Criteria criteria = Criteria.empty();
         for (Map.Entry<String, String> entry : params.entrySet()) {
-            String key = camelCaseToSnakeCase(entry.getKey());
+            String column = FILTER_COLUMNS.get(entry.getKey());
             String value = entry.getValue().trim();
 
-            // Check if the key is a valid field name
-            if (!fieldNames.contains(entry.getKey())) {
-                return Flux.error(new HttpException(HttpStatus.BAD_REQUEST, "Invalid parameter name: " + entry.getKey()));
+            // Only the listed keys are filters; anything else would be a bad column or a scan over the bodies
+            if (column == null) {
+                throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid parameter name: " + entry.getKey());
             }
 
             // Special handling for status field (avoid wrapping enums in %)
-            if ("status".equalsIgnoreCase(entry.getKey())) {
+            if ("status".equals(column)) {
                 try {
                     BlogStatus status = BlogStatus.valueOf(value.toUpperCase()); // Convert directly
-                    criteria = criteria.and(key).is(status);
+                    criteria = criteria.and(column).is(status);
                 } catch (IllegalArgumentException e) {
-                    return Flux.error(new HttpException(HttpStatus.BAD_REQUEST, "Invalid blog status: " + value));
+                    throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid blog status: " + value);
                 }
+            } else if ("title".equals(column)) {
+                // Use LIKE query for the title
+                criteria = criteria.and(column).like("%" + value + "%");
             } else {
-                // Use LIKE query for non-enum fields
-                criteria = criteria.and(key).like("%" + value + "%");
+                // Ids are matched exactly so the primary key and author_id indexes can be used
+                try {
+                    criteria = criteria.and(column).is(Long.parseLong(value));
+                } catch (NumberFormatException e) {
+                    throw new HttpException(HttpStatus.BAD_REQUEST, "Invalid value for " + entry.getKey() + ": " + value);
+                }
             }
 
             log.info("criteria: " + criteria.toString());
         }
+        return criteria;
+    }
+
+    @Override
+    public Mono<BlogPostsDTO> findByIdWithImages(Long id) {
+        // Every row carries the post columns plus at most one image; fold them into a single DTO as they stream in
+        return template.getDatabaseClient()
+                .sql(FIND_BY_ID_WITH_IMAGES)
+                .bind("id", id)
+                .map(this::toBlogPostWithImage)
+                .all()
+                .reduce((blogPost, next) -> {
+                    blogPost.getImages().addAll(next.getImages());
+                    return blogPost;
+                });
+    }
+
+    @Override
+    public Mono<BlogPosts> findContentById(Long id) {
+        return template.select(BlogPosts.class)
+                .from("blog_posts")
+                .matching(Query.query(Criteria.where("id").is(id))
+                        .columns("id", "status", "content", "content_compressed", "created_at", "updated_at"))
+                .one();
+    }
+
+    @Override
+    public Flux<BlogPosts> search(String query, SearchMode mode, BlogStatus status, int limit) {
+        return template.getDatabaseClient()
+                .sql(SEARCH.formatted(mode.getModifier()))
+                .bind("query", query)
+                .bind("status", status.name())
+                .bind("limit", limit)
+                .map((row, metadata) -> template.getConverter().read(BlogPosts.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Flux<BlogPosts> findCompressedSummaries(Collection<Long> ids, BlogStatus status) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return template.select(BlogPosts.class)
+                .from("blog_posts")
+                .matching(Query.query(Criteria.where("id").in(ids).and("status").is(status).and("content").isNull())
+                        .columns(SUMMARY_COLUMNS))
+                .all();
+    }
+
+    /**
+     * Adds every delta in one statement:
+     * {@code UPDATE blog_posts SET view_count = view_count + CASE id WHEN ? THEN ? ... END WHERE id IN (...)}.
+     * Like the rendered content backfill it keeps updated_at as is, so views never look like edits.
+     */
+    @Override
+    public Mono<Long> addViewCounts(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+        StringBuilder sql = new StringBuilder("UPDATE blog_posts SET view_count = view_count + CASE id");
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(" WHEN :id").append(i).append(" THEN :delta").append(i);
+        }
+        sql.append(" ELSE 0 END, updated_at = updated_at WHERE id IN (:ids)");
+
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString()).bind("ids", ids);
+        for (int i = 0; i < ids.size(); i++) {
+            spec = spec.bind("id" + i, ids.get(i)).bind("delta" + i, deltas.get(ids.get(i)));
+        }
+        return spec.fetch().rowsUpdated();
+    }
 
+    @Override
+    public Flux<BlogPosts> findMissingExcerpts(int limit) {
         return template.select(BlogPosts.class)
                 .from("blog_posts")
-                .matching(Query.query(criteria))
+                .matching(Query.query(Criteria.where("excerpt").isNull())
+                        .columns("id", "content", "content_compressed")
+                        .limit(limit))
                 .all();
     }
-    private String camelCaseToSnakeCase(String camelCase) {
-        return camelCase.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+
+    @Override
+    public Mono<Long> updateExcerpt(Long id, String excerpt) {
+        return template.getDatabaseClient()
+                .sql(UPDATE_EXCERPT)
+                .bind("excerpt", excerpt)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Long> updateRenderedContent(Long id, String contentHtml, String tableOfContents, int readingTimeMinutes) {
+        return template.getDatabaseClient()
+                .sql(UPDATE_RENDERED_CONTENT)
+                .bind("html", contentHtml)
+                .bind("toc", tableOfContents)
+                .bind("minutes", readingTimeMinutes)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Flux<BlogPosts> findScheduled() {
+        return findScheduled(Criteria.empty());
+    }
+
+    @Override
+    public Flux<BlogPosts> findScheduled(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return findScheduled(Criteria.where("id").in(ids));
+    }
+
+    private Flux<BlogPosts> findScheduled(Criteria criteria) {
+        return template.select(BlogPosts.class)
+                .from("blog_posts")
+                .matching(Query.query(criteria.and("status").is(BlogStatus.SCHEDULED).and("publish_at").isNotNull())
+                        .columns("id", "publish_at"))
+                .all();
+    }
+
+    @Override
+    public Flux<Long> findDueForUpdate(Collection<Long> ids, ZonedDateTime now) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return template.getDatabaseClient()
+                .sql(FIND_DUE_FOR_UPDATE)
+                .bind("ids", ids)
+                .bind("now", now)
+                .map(row -> row.get("id", Long.class))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> publishScheduled(Collection<Long> ids, ZonedDateTime now) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return template.getDatabaseClient()
+                .sql(PUBLISH_SCHEDULED)
+                .bind("ids", ids)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public Flux<BlogPosts> findStatusesForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return template.getDatabaseClient()
+                .sql(FIND_STATUSES_FOR_UPDATE)
+                .bind("ids", ids)
+                .map((row, metadata) -> template.getConverter().read(BlogPosts.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Mono<Long> updateStatus(Collection<Long> ids, BlogStatus status) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return template.getDatabaseClient()
+                .sql("UPDATE blog_posts SET status = :status, version = version + 1 WHERE id IN (:ids)")
+                .bind("status", status.name())
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Inserts every post with one {@code INSERT ... VALUES (...), (...)}. Values go through the same callbacks
+     * and converter as a regular save. InnoDB gives the rows of a single multi-row INSERT consecutive ids, so
+     * the ids follow from the first generated one.
+     */
+    @Override
+    public Mono<List<Long>> insertAll(List<BlogPosts> blogPosts) {
+        if (blogPosts.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        SqlIdentifier table = SqlIdentifier.unquoted("blog_posts");
+        return Flux.fromIterable(blogPosts)
+                .concatMap(blogPost -> Flux.fromIterable(beforeConvertCallbacks)
+                        .reduce(Mono.just(blogPost), (converted, callback) ->
+                                converted.flatMap(post -> Mono.from(callback.onBeforeConvert(post, table))))
+                        .flatMap(converted -> converted))
+                .map(this::toColumnValues)
+                .collectList()
+                .flatMap(rows -> {
+                    StringBuilder sql = new StringBuilder("INSERT INTO blog_posts (")
+                            .append(String.join(", ", INSERT_COLUMNS))
+                            .append(") VALUES ");
+                    for (int row = 0; row < rows.size(); row++) {
+                        sql.append(row == 0 ? "(" : ", (");
+                        for (int column = 0; column < INSERT_COLUMNS.size(); column++) {
+                            sql.append(column == 0 ? "" : ", ").append(":v").append(row).append('_').append(column);
+                        }
+                        sql.append(')');
+                    }
+                    DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString());
+                    for (int row = 0; row < rows.size(); row++) {
+                        for (int column = 0; column < INSERT_COLUMNS.size(); column++) {
+                            spec = spec.bind("v" + row + "_" + column, rows.get(row).get(INSERT_COLUMNS.get(column)));
+                        }
+                    }
+                    return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                            .map(row -> row.get("id", Long.class))
+                            .first()
+                            .switchIfEmpty(Mono.error(new HttpException(HttpStatus.INTERNAL_SERVER_ERROR,
+                                    "No id generated for inserted blog posts")))
+                            .map(firstId -> LongStream.range(0, rows.size()).mapToObj(i -> firstId + i).toList());
+                });
+    }
+
+    private Map<String, Parameter> toColumnValues(BlogPosts blogPost) {
+        OutboundRow row = new OutboundRow();
+        template.getConverter().write(blogPost, row);
+        Map<String, Parameter> values = new HashMap<>();
+        row.forEach((column, value) -> values.put(column.getReference(), value));
+        for (String column : INSERT_COLUMNS) {
+            values.putIfAbsent(column, Parameter.empty(String.class));
+        }
+        return values;
+    }
+
+    @Override
+    public Mono<Long> markDeleted(Long id) {
+        return template.getDatabaseClient()
+                .sql("UPDATE blog_posts SET status = 'DELETED', version = version + 1 WHERE id = :id AND status <> 'DELETED'")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private BlogPostsDTO toBlogPostWithImage(Row row, RowMetadata metadata) {
+        BlogPostsDTO dto = mapper.blogPostsToBlogPostsDTO(template.getConverter().read(BlogPosts.class, row, metadata));
+        List<BlogImages> images = new ArrayList<>();
+        Long imageId = row.get("img_id", Long.class);
+        if (imageId != null) {
+            String type = row.get("img_type", String.class);
+            images.add(BlogImages.builder()
+                    .id(imageId)
+                    .blogPostId(row.get("img_blog_post_id", Long.class))
+                    .imageUrl(row.get("img_image_url", String.class))
+                    .imageKey(row.get("img_image_key", String.class))
+                    .alt(row.get("img_alt", String.class))
+                    .caption(row.get("img_caption", String.class))
+                    .credit(row.get("img_credit", String.class))
+                    .type(type != null ? ImageType.valueOf(type) : null)
+                    .createdAt(row.get("img_created_at", ZonedDateTime.class))
+                    .updatedAt(row.get("img_updated_at", ZonedDateTime.class))
+                    .build());
+        }
+        dto.setImages(images);
+        return dto;
     }
 }
@@ -36,7 +36,10 @@ public class SecurityConfig {
                 .authorizeExchange(exchange -> exchange
                         .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .pathMatchers("/auth/login", "/auth/refresh-token").permitAll()
+                                .pathMatchers(HttpMethod.POST, "/blogs/all").authenticated()
+                                .pathMatchers(HttpMethod.DELETE, "/blogs/**").authenticated()
                                 .pathMatchers("/blogs", "/blogs/**").permitAll()
+                                .pathMatchers(HttpMethod.GET, "/sitemap.xml").permitAll()
                                 .pathMatchers("/admin/**").authenticated()
 //                        .pathMatchers(HttpMethod.POST, "/users").permitAll() // Allow public access
                         .pathMatchers("/users").authenticated()
@@ -0,0 +1,80 @@
+package dev.rickcloudy.restapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.rickcloudy.restapi.dto.AuthorSummaryDTO;
+import dev.rickcloudy.restapi.enums.UserStatus;
+import dev.rickcloudy.restapi.mapper.UserMapper;
+import dev.rickcloudy.restapi.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Batches author lookups for blog responses: the distinct author ids of a window of posts are resolved
+ * with one {@code WHERE id IN (...)} query, and resolved authors are kept in a small cache.
+ */
+@Component
+public class AuthorLoader {
+    private static final Logger log = LogManager.getLogger(AuthorLoader.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final UserRepository userRepository;
+    private final UserMapper mapper;
+    private final Cache<Long, AuthorSummaryDTO> authors = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public AuthorLoader(UserRepository userRepository, UserMapper mapper) {
+        this.userRepository = userRepository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Attaches the author of every item, resolving each window of {@value #BATCH_SIZE} items in one query.
+     * Items whose author cannot be found (or is deleted) are passed on with a {@code null} author.
+     */
+    public <T> Flux<T> embed(Flux<T> items, Function<T, Long> authorId, BiFunction<T, AuthorSummaryDTO, T> withAuthor) {
+        return items
+                .buffer(BATCH_SIZE)
+                .concatMap(window -> loadAll(window.stream().map(authorId).filter(Objects::nonNull).toList())
+                        .flatMapIterable(found -> window.stream()
+                                .map(item -> withAuthor.apply(item, found.get(authorId.apply(item))))
+                                .toList()));
+    }
+
+    public Mono<AuthorSummaryDTO> load(Long authorId) {
+        return loadAll(List.of(authorId)).mapNotNull(found -> found.get(authorId));
+    }
+
+    public Mono<Map<Long, AuthorSummaryDTO>> loadAll(Collection<Long> authorIds) {
+        Set<Long> distinct = new HashSet<>(authorIds);
+        Map<Long, AuthorSummaryDTO> found = new HashMap<>(authors.getAllPresent(distinct));
+        distinct.removeAll(found.keySet());
+        if (distinct.isEmpty()) {
+            return Mono.just(found);
+        }
+        log.debug("Loading {} authors in one query", distinct.size());
+        return userRepository.findAllByIds(distinct)
+                .filter(user -> user.getStatus() != UserStatus.DELETED)
+                .map(mapper::userToAuthorSummary)
+                .doOnNext(author -> authors.put(author.getId(), author))
+                .collectMap(AuthorSummaryDTO::getId)
+                .map(loaded -> {
+                    found.putAll(loaded);
+                    return found;
+                });
+    }
+
+    public void invalidate(Long authorId) {
+        authors.invalidate(authorId);
+    }
+}
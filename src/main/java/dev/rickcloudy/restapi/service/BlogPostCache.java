@@ -0,0 +1,121 @@
+package dev.rickcloudy.restapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.SerializedBlogPost;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * In-process cache of published blog posts, keyed by id, holding both the DTO and its serialized response.
+ * Caffeine bounds it by size (W-TinyLFU eviction) and by time-to-live; writers are expected to
+ * {@link #invalidate(Long)} the posts they change, which drops both forms.
+ * <p>
+ * A load that read the row before a change committed must not cache it after the change invalidated the
+ * post. Loaders therefore take the post's {@link #generation(Long)} before reading and hand it to the put,
+ * which keeps the entry only if no invalidation happened in between. Generations live in a fixed array of
+ * stripes, so two posts sharing a stripe at worst skip a put.
+ */
+@Component
+public class BlogPostCache {
+    private static final Logger log = LogManager.getLogger(BlogPostCache.class);
+    private static final int GENERATION_STRIPES = 1024;
+    private final Cache<Long, BlogPostsDTO> posts;
+    private final Cache<Long, SerializedBlogPost> responses;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public BlogPostCache(RickCloudyProperties properties) {
+        RickCloudyProperties.Cache config = properties.getBlog().getCache();
+        this.posts = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .recordStats()
+                .build();
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    public BlogPostsDTO get(Long id) {
+        return posts.getIfPresent(id);
+    }
+
+    /**
+     * Take this before reading the post from the database and pass it to {@link #put(BlogPostsDTO, long)}.
+     */
+    public long generation(Long id) {
+        return generations.get(stripe(id));
+    }
+
+    /**
+     * Caches the post unless it was invalidated since {@code generation} was taken, or a newer version of it
+     * is cached already.
+     */
+    public void put(BlogPostsDTO blogPost, long generation) {
+        putIfCurrent(posts, blogPost.getId(), blogPost, BlogPostsDTO::getVersion, generation);
+    }
+
+    public SerializedBlogPost getSerialized(Long id) {
+        return responses.getIfPresent(id);
+    }
+
+    public void putSerialized(SerializedBlogPost response, long generation) {
+        putIfCurrent(responses, response.getId(), response, SerializedBlogPost::getVersion, generation);
+    }
+
+    public void invalidate(Long id) {
+        log.debug("Invalidating cached blog post {}", id);
+        // Bump first: a put that still sees the old generation has put its entry before the removal below
+        generations.incrementAndGet(stripe(id));
+        posts.invalidate(id);
+        responses.invalidate(id);
+    }
+
+    private <V> void putIfCurrent(Cache<Long, V> cache, Long id, V value, Function<V, Long> versionOf, long generation) {
+        if (generation(id) != generation) {
+            return;
+        }
+        cache.asMap().merge(id, value, (cached, loaded) -> isNewer(versionOf.apply(cached), versionOf.apply(loaded)) ? cached : loaded);
+        // An invalidation between the check above and the merge has to win
+        if (generation(id) != generation) {
+            cache.asMap().remove(id, value);
+        }
+    }
+
+    private static boolean isNewer(Long cached, Long loaded) {
+        return cached != null && loaded != null && cached > loaded;
+    }
+
+    private static int stripe(Long id) {
+        return (int) (id & (GENERATION_STRIPES - 1));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("posts", stats(posts));
+        result.put("responses", stats(responses));
+        return result;
+    }
+
+    private static Map<String, Object> stats(Cache<Long, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
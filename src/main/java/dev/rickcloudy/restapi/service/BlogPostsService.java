@@ -2,38 +2,63 @@ package dev.rickcloudy.restapi.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
+import dev.rickcloudy.restapi.dto.BlogImportResult;
 import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.BlogStatusChangeResult;
+import dev.rickcloudy.restapi.dto.CursorPage;
+import dev.rickcloudy.restapi.dto.PageCursor;
+import dev.rickcloudy.restapi.dto.ResponseDTO;
+import dev.rickcloudy.restapi.dto.SearchHit;
+import dev.rickcloudy.restapi.dto.SerializedBlogPost;
 import dev.rickcloudy.restapi.entity.BlogImages;
 import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.entity.Users;
 import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.enums.SearchMode;
+import dev.rickcloudy.restapi.enums.UserStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
 import dev.rickcloudy.restapi.exception.custom.BlogPostNotFoundException;
 import dev.rickcloudy.restapi.exception.HttpException;
-import dev.rickcloudy.restapi.exception.custom.NotFoundException;
 import dev.rickcloudy.restapi.exception.custom.UnauthorizedException;
 import dev.rickcloudy.restapi.exception.custom.UserNotFoundException;
+import dev.rickcloudy.restapi.helper.ConditionalRequests;
+import dev.rickcloudy.restapi.helper.FieldSelection;
 import dev.rickcloudy.restapi.helper.ReactiveLogger;
+import dev.rickcloudy.restapi.helper.SingleFlight;
+import dev.rickcloudy.restapi.helper.TransactionCallbacks;
 import dev.rickcloudy.restapi.mapper.BlogPostMapper;
+import dev.rickcloudy.restapi.mapper.TableOfContentsMapper;
 import dev.rickcloudy.restapi.repository.BlogImagesRepository;
 import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import dev.rickcloudy.restapi.repository.CustomBlogRepository;
 import dev.rickcloudy.restapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static net.sf.jsqlparser.util.validation.metadata.NamedObject.user;
 
@@ -41,12 +66,41 @@ import static net.sf.jsqlparser.util.validation.metadata.NamedObject.user;
 @RequiredArgsConstructor
 public class BlogPostsService {
     private static Logger log = LogManager.getLogger(BlogPostsService.class);
+    private static final int IMAGE_BATCH_SIZE = 200;
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final int STATUS_BATCH_SIZE = 500;
+    // BM25 hits looked at per missing search result; most of them are posts MySQL has already matched in full
+    private static final int COMPRESSED_SEARCH_CANDIDATES = 5;
+    // Posts per multi-row INSERT, and how many of those may be in flight during an import
+    private static final int IMPORT_BATCH_SIZE = 100;
+    private static final int IMPORT_CONCURRENCY = 4;
+    private static final int TITLE_MAX_LENGTH = 100;
+    // Fields a listing may be narrowed to with ?fields=
+    public static final Set<String> SUMMARY_FIELDS = Set.of(
+            "id", "title", "excerpt", "wordCount", "viewCount", "readingTimeMinutes", "authorId", "author", "status",
+            "coverImage", "createdAt", "updatedAt");
+    // Always read: the cursor needs id and created_at, the page ETag needs updated_at, the author loader needs author_id
+    private static final String[] REQUIRED_SUMMARY_COLUMNS = {"id", "created_at", "updated_at", "author_id"};
     private final BlogPostsRepository blogPostsRepository;
     private final UserRepository userRepository;
     private final BlogImagesRepository imagesRepository;
     private final BlogPostMapper mapper;
     private final S3Service s3Service;
     private final Validator validator;
+    private final BlogPostCache blogPostCache;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlogSearchIndex blogSearchIndex;
+    private final AuthorLoader authorLoader;
+    private final MarkdownRenderer markdownRenderer;
+    private final TableOfContentsMapper tocMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final ImageCleanupQueue imageCleanupQueue;
+    private final SingleFlight<BlogPostLoad, BlogPostsDTO> blogPostLoads = new SingleFlight<>();
+
+    // One in-flight load per post and cache generation
+    private record BlogPostLoad(Long id, long generation) {
+    }
 
     @Transactional
     public Mono<BlogPostsDTO> createBlogPost(BlogPosts blogPost, Flux<String> imagesUrl) {
@@ -62,10 +116,25 @@ public class BlogPostsService {
             errors.getAllErrors().forEach(error -> errorMessage.append(error.getDefaultMessage()).append(" "));
             return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, errorMessage.toString()));
         }
+        if (invalidSchedule(blogPost)) {
+            return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "Scheduled posts need a publishAt in the future"));
+        }
+        // A post without an id or version is always inserted, whatever the client sent
+        blogPost.setId(null);
+        blogPost.setVersion(null);
+        // The column defaults are not read back, and listeners such as the feed sort on these
+        ZonedDateTime now = ZonedDateTime.now();
+        if (blogPost.getCreatedAt() == null) {
+            blogPost.setCreatedAt(now);
+        }
+        if (blogPost.getUpdatedAt() == null) {
+            blogPost.setUpdatedAt(now);
+        }
 
         return userRepository.findById(blogPost.getAuthorId())
                 .switchIfEmpty(Mono.error(new UserNotFoundException(HttpStatus.NOT_FOUND, "User Not Found")))
-                .flatMap(user -> blogPostsRepository.save(blogPost))
+                .flatMap(user -> withRenderedContent(blogPost))
+                .flatMap(blogPostsRepository::save)
                 .flatMap(savedBlogPost -> imagesUrl
                         .flatMap(this::parseJsonArray)
                         .flatMap(url -> imagesRepository.findByUrl(url)
@@ -85,6 +154,7 @@ public class BlogPostsService {
                             dto.setImages(updatedImages);
                             return dto;
                         }))
+                .flatMap(dto -> publishChange(BlogPostChangedEvent.Type.CREATED, dto).thenReturn(dto))
                 .onErrorResume(err -> {
                     log.error("Error saving blog post: {}", err);
                     return Mono.error(err); // Ensures transaction rollback
@@ -92,6 +162,128 @@ public class BlogPostsService {
     }
 
 
+    /**
+     * Bulk import for migrating content. Each record is validated on its own; the rest of a batch of
+     * {@value #IMPORT_BATCH_SIZE} shares one author lookup and one multi-row INSERT. At most
+     * {@value #IMPORT_CONCURRENCY} batches are in flight and records are only requested as batches finish, so
+     * a slow database slows the reading of the body instead of filling the heap. Results come back per record,
+     * in input order, as each batch is stored.
+     */
+    public Flux<ResponseDTO<BlogImportResult>> importBlogPosts(Flux<BlogPosts> blogPosts) {
+        return blogPosts
+                .index()
+                .buffer(IMPORT_BATCH_SIZE)
+                .flatMapSequential(this::importBatch, IMPORT_CONCURRENCY, 1);
+    }
+
+    private Flux<ResponseDTO<BlogImportResult>> importBatch(List<Tuple2<Long, BlogPosts>> batch) {
+        // One result per record, by position in the batch; failures are filled in as they are found
+        List<ResponseDTO<BlogImportResult>> results = new ArrayList<>(Collections.nCopies(batch.size(), null));
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            String error = importError(batch.get(i).getT2());
+            if (error != null) {
+                results.set(i, importFailure(batch.get(i), error));
+            } else {
+                valid.add(i);
+            }
+        }
+        Set<Long> authorIds = valid.stream().map(i -> batch.get(i).getT2().getAuthorId()).collect(Collectors.toSet());
+
+        return userRepository.findAllByIds(authorIds)
+                .filter(user -> user.getStatus() != UserStatus.DELETED)
+                .map(Users::getId)
+                .collect(Collectors.toSet())
+                .flatMap(authors -> {
+                    List<Integer> accepted = new ArrayList<>();
+                    for (int i : valid) {
+                        Long authorId = batch.get(i).getT2().getAuthorId();
+                        if (authors.contains(authorId)) {
+                            accepted.add(i);
+                        } else {
+                            results.set(i, importFailure(batch.get(i), "User with ID " + authorId + " does not exists"));
+                        }
+                    }
+                    return Flux.fromIterable(accepted)
+                            .concatMap(i -> withRenderedContent(forImport(batch.get(i).getT2())))
+                            .collectList()
+                            .flatMap(posts -> blogPostsRepository.insertAll(posts)
+                                    .flatMap(ids -> {
+                                        List<BlogPostsDTO> created = new ArrayList<>(posts.size());
+                                        for (int j = 0; j < posts.size(); j++) {
+                                            BlogPosts post = posts.get(j);
+                                            post.setId(ids.get(j));
+                                            results.set(accepted.get(j), ResponseDTO.success(new BlogImportResult(
+                                                    batch.get(accepted.get(j)).getT1(), post.getId(), post.getTitle()),
+                                                    "Blog post imported"));
+                                            created.add(mapper.blogPostsToBlogPostsDTO(post));
+                                        }
+                                        return publishChanges(BlogPostChangedEvent.Type.CREATED, created);
+                                    }))
+                            .onErrorResume(err -> {
+                                log.error("Failed to import a batch of {} blog posts", accepted.size(), err);
+                                accepted.forEach(i -> results.set(i, importFailure(batch.get(i),
+                                        "Failed to store blog post: " + err.getMessage())));
+                                return Mono.empty();
+                            });
+                })
+                .thenMany(Flux.defer(() -> Flux.fromIterable(results)));
+    }
+
+    // Checked here rather than by the database, where one bad row would fail the whole INSERT
+    private String importError(BlogPosts blogPost) {
+        Errors errors = new BeanPropertyBindingResult(blogPost, "blogPost");
+        validator.validate(blogPost, errors);
+        if (errors.hasErrors()) {
+            StringBuilder errorMessage = new StringBuilder("Validation failed: ");
+            errors.getAllErrors().forEach(error -> errorMessage.append(error.getDefaultMessage()).append(" "));
+            return errorMessage.toString().strip();
+        }
+        if (blogPost.getTitle().length() > TITLE_MAX_LENGTH) {
+            return "Title must be at most " + TITLE_MAX_LENGTH + " characters";
+        }
+        if (invalidSchedule(blogPost)) {
+            return "Scheduled posts need a publishAt in the future";
+        }
+        return null;
+    }
+
+    private static ResponseDTO<BlogImportResult> importFailure(Tuple2<Long, BlogPosts> record, String message) {
+        return ResponseDTO.fail(new BlogImportResult(record.getT1(), null, record.getT2().getTitle()), message);
+    }
+
+    // Imported posts always get new ids; the column defaults a regular save leaves to MySQL are filled in here
+    private static BlogPosts forImport(BlogPosts blogPost) {
+        ZonedDateTime now = ZonedDateTime.now();
+        blogPost.setId(null);
+        blogPost.setViewCount(null);
+        if (blogPost.getStatus() == null) {
+            blogPost.setStatus(BlogStatus.DRAFT);
+        }
+        if (blogPost.getCreatedAt() == null) {
+            blogPost.setCreatedAt(now);
+        }
+        if (blogPost.getUpdatedAt() == null) {
+            blogPost.setUpdatedAt(blogPost.getCreatedAt());
+        }
+        return blogPost;
+    }
+
+    private static boolean invalidSchedule(BlogPosts blogPost) {
+        return blogPost.getStatus() == BlogStatus.SCHEDULED
+                && (blogPost.getPublishAt() == null || !blogPost.getPublishAt().isAfter(ZonedDateTime.now()));
+    }
+
+    private Mono<BlogPosts> withRenderedContent(BlogPosts blogPost) {
+        return markdownRenderer.render(blogPost.getContent())
+                .map(rendered -> {
+                    blogPost.setContentHtml(rendered.getHtml());
+                    blogPost.setTableOfContents(tocMapper.toJson(rendered.getTableOfContents()));
+                    blogPost.setReadingTimeMinutes(rendered.getReadingTimeMinutes());
+                    return blogPost;
+                });
+    }
+
     /**
      * Parses a JSON-like string (e.g., '["url1", "url2"]') into a Flux<String> of individual URLs.
      */
@@ -120,58 +312,227 @@ public class BlogPostsService {
                 .doOnError(err -> log.error("Error Saving Image: {}", err));
     }
 
-        public Mono<BlogPostsDTO> getBlogPostById(Long id) {
-            return blogPostsRepository.findById(id)
-                    .switchIfEmpty(Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found")))
-                    .flatMap(res -> {
-                        if (res.getStatus() == BlogStatus.DELETED) {
-                            return Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found"));
-                        }
-                        if(!(res.getStatus() == BlogStatus.PUBLISHED)) {
-                            return Mono.error(new UnauthorizedException("Unathorized to access blog post with id " + id));
-                        }
-                        return Mono.just(res);
-                    })
-                    .flatMap(blogPost -> {
-                        BlogPostsDTO blogPostsDTO = mapper.blogPostsToBlogPostsDTO(blogPost);
-                        return imagesRepository.findByBlogPostId(blogPost.getId())
-                                .collectList()
-                                .map(imageList -> {
-                                    log.debug("Image List {}", imageList);
-                                    blogPostsDTO.setImages(imageList);
-                                    return blogPostsDTO;
-                                });
-                    });
+    public Mono<BlogPostsDTO> getBlogPostById(Long id) {
+        // Deferred so the generation is taken when the load actually starts
+        return Mono.defer(() -> {
+            BlogPostsDTO cached = blogPostCache.get(id);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            // Only published posts make it past the checks below, so nothing else is ever cached.
+            // Concurrent misses for the same id share one load instead of each querying the database; the
+            // generation is part of the key, so callers arriving after an invalidation start a fresh load.
+            long generation = blogPostCache.generation(id);
+            return blogPostLoads.execute(new BlogPostLoad(id, generation), () -> loadPublishedBlogPost(id)
+                    .doOnNext(blogPost -> blogPostCache.put(blogPost, generation)));
+        });
+    }
+
+    /**
+     * Same as {@link #getBlogPostById(Long)} but returns the already serialized response envelope, so hot
+     * posts are served without running Jackson again.
+     */
+    public Mono<SerializedBlogPost> getSerializedBlogPostById(Long id) {
+        return Mono.defer(() -> {
+            SerializedBlogPost cached = blogPostCache.getSerialized(id);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long generation = blogPostCache.generation(id);
+            return getBlogPostById(id)
+                    .map(this::serialize)
+                    .doOnNext(response -> blogPostCache.putSerialized(response, generation));
+        });
+    }
+
+    private SerializedBlogPost serialize(BlogPostsDTO blogPost) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(ResponseDTO.success(blogPost, "Blog post found"));
+            byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+            ZonedDateTime lastModified = blogPost.getUpdatedAt() != null ? blogPost.getUpdatedAt() : blogPost.getCreatedAt();
+            return new SerializedBlogPost(blogPost.getId(), blogPost.getVersion(), lastModified,
+                    ConditionalRequests.etag(json), json, gzip);
+        } catch (IOException e) {
+            throw new HttpException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to serialize blog post " + blogPost.getId());
         }
+    }
 
-    public Mono<BlogPostsDTO> getBlogPostByIdAdmin(Long id) {
-        return blogPostsRepository.findById(id)
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private Mono<BlogPostsDTO> loadPublishedBlogPost(Long id) {
+        return blogPostsRepository.findByIdWithImages(id)
                 .switchIfEmpty(Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found")))
-                .flatMap(blogPost -> {
-                    BlogPostsDTO blogPostsDTO = mapper.blogPostsToBlogPostsDTO(blogPost);
-                    return imagesRepository.findByBlogPostId(blogPost.getId())
-                            .collectList()
-                            .map(imageList -> {
-                                blogPostsDTO.setImages(imageList);
-                                return blogPostsDTO;
-                            });
+                .flatMap(res -> {
+                    if (res.getStatus() == BlogStatus.DELETED) {
+                        return Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found"));
+                    }
+                    if(!(res.getStatus() == BlogStatus.PUBLISHED)) {
+                        return Mono.error(new UnauthorizedException("Unathorized to access blog post with id " + id));
+                    }
+                    log.debug("Image List {}", res.getImages());
+                    return Mono.just(res);
                 });
     }
 
-    public Flux<BlogPostsDTO> getAllBlogPostsAdmin() {
-        return blogPostsRepository.findAll()
+    /**
+     * Same as {@link #getBlogPostById(Long)} but guarantees the rendered HTML. Posts written before
+     * rendering existed are rendered once here and stored, so later requests skip the renderer.
+     */
+    public Mono<BlogPostsDTO> getRenderedBlogPostById(Long id) {
+        return getBlogPostById(id)
                 .flatMap(blogPost -> {
-                    BlogPostsDTO blogPostsDTO = mapper.blogPostsToBlogPostsDTO(blogPost);
-                    return imagesRepository.findByBlogPostId(blogPost.getId())
-                            .collectList()
-                            .map(imageList -> {
-                                blogPostsDTO.setImages(imageList);
-                                return blogPostsDTO;
-                            });
+                    if (blogPost.getContentHtml() != null) {
+                        return Mono.just(blogPost);
+                    }
+                    return markdownRenderer.render(blogPost.getContent())
+                            .flatMap(rendered -> blogPostsRepository.updateRenderedContent(id, rendered.getHtml(),
+                                            tocMapper.toJson(rendered.getTableOfContents()), rendered.getReadingTimeMinutes())
+                                    .doOnSuccess(updated -> blogPostCache.invalidate(id))
+                                    .thenReturn(blogPost.toBuilder()
+                                            .contentHtml(rendered.getHtml())
+                                            .tableOfContents(rendered.getTableOfContents())
+                                            .readingTimeMinutes(rendered.getReadingTimeMinutes())
+                                            .build()));
                 });
     }
 
-    @Transactional
+    /**
+     * The stored body of a published post, left compressed if it was stored that way.
+     */
+    public Mono<BlogPosts> getBlogPostContent(Long id) {
+        return blogPostsRepository.findContentById(id)
+                .switchIfEmpty(Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found")))
+                .flatMap(res -> {
+                    if (res.getStatus() == BlogStatus.DELETED) {
+                        return Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found"));
+                    }
+                    if (res.getStatus() != BlogStatus.PUBLISHED) {
+                        return Mono.error(new UnauthorizedException("Unathorized to access blog post with id " + id));
+                    }
+                    return Mono.just(res);
+                });
+    }
+
+    public Mono<BlogPostsDTO> getBlogPostByIdAdmin(Long id) {
+        return blogPostsRepository.findByIdWithImages(id)
+                .switchIfEmpty(Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found")));
+    }
+
+    public Flux<BlogPostSummaryDTO> getAllBlogPostsAdmin() {
+        return withCoverImages(blogPostsRepository.findSummariesByParams(Collections.emptyMap()));
+    }
+
+    /**
+     * Full-text search over published posts, most relevant first.
+     * <p>
+     * MySQL only sees the titles of posts stored compressed. In NATURAL mode, when it returns fewer than
+     * {@code limit} posts, compressed posts the BM25 index matches by body fill the rest in BM25 order; the
+     * two scores are not comparable, so they follow the MySQL results rather than being merged into them.
+     */
+    public Flux<BlogPostSummaryDTO> searchBlogPosts(String query, SearchMode mode, int limit) {
+        Flux<BlogPosts> fullText = blogPostsRepository.search(query, mode, BlogStatus.PUBLISHED, limit);
+        if (mode != SearchMode.NATURAL) {
+            return withCoverImages(fullText);
+        }
+        return withCoverImages(fullText.collectList().flatMapMany(matched -> {
+            if (matched.size() >= limit) {
+                return Flux.fromIterable(matched);
+            }
+            Set<Long> seen = matched.stream().map(BlogPosts::getId).collect(Collectors.toSet());
+            List<Long> candidates = blogSearchIndex.search(query, limit * COMPRESSED_SEARCH_CANDIDATES + seen.size()).stream()
+                    .map(SearchHit::getId)
+                    .filter(id -> !seen.contains(id))
+                    .toList();
+            return blogPostsRepository.findCompressedSummaries(candidates, BlogStatus.PUBLISHED)
+                    .collectMap(BlogPosts::getId)
+                    .flatMapMany(compressed -> Flux.fromIterable(matched)
+                            .concatWith(Flux.fromStream(candidates.stream()
+                                    .map(compressed::get)
+                                    .filter(Objects::nonNull)
+                                    .limit(limit - matched.size()))));
+        }));
+    }
+
+    public Mono<CursorPage<BlogPostSummaryDTO>> getBlogPostsPageAdmin(PageCursor cursor, int limit) {
+        return toPage(blogPostsRepository.findByParams(Collections.emptyMap(), cursor, limit + 1), limit, FieldSelection.ALL);
+    }
+
+    private Mono<CursorPage<BlogPostSummaryDTO>> toPage(Flux<BlogPosts> blogPosts, int limit, FieldSelection fields) {
+        return toSummaries(blogPosts, fields)
+                .collectList()
+                .map(posts -> CursorPage.of(posts, limit, post -> PageCursor.of(post.getCreatedAt(), post.getId())));
+    }
+
+    // The image query is only worth running when the client wants the cover
+    private Flux<BlogPostSummaryDTO> toSummaries(Flux<BlogPosts> blogPosts, FieldSelection fields) {
+        return fields.includes("coverImage") ? withCoverImages(blogPosts) : blogPosts.map(mapper::blogPostsToSummary);
+    }
+
+    private List<String> summaryColumns(FieldSelection fields) {
+        return fields.columns(CustomBlogRepository.SUMMARY_COLUMNS, REQUIRED_SUMMARY_COLUMNS);
+    }
+
+    /**
+     * Attaches the author summary to each post, one user query per window of posts.
+     */
+    public Flux<BlogPostSummaryDTO> withAuthors(Flux<BlogPostSummaryDTO> posts) {
+        return authorLoader.embed(posts, BlogPostSummaryDTO::getAuthorId, (post, author) -> {
+            post.setAuthor(author);
+            return post;
+        });
+    }
+
+    // Copies the post first: the DTO may be the instance held by the blog post cache
+    public Mono<BlogPostsDTO> withAuthor(BlogPostsDTO blogPost) {
+        if (blogPost.getAuthorId() == null) {
+            return Mono.just(blogPost);
+        }
+        return authorLoader.load(blogPost.getAuthorId())
+                .map(author -> blogPost.toBuilder().author(author).build())
+                .defaultIfEmpty(blogPost);
+    }
+
+    /**
+     * Maps summary rows to DTOs with the post's first image as its cover.
+     */
+    private Flux<BlogPostSummaryDTO> withCoverImages(Flux<BlogPosts> blogPosts) {
+        return withImages(blogPosts, (blogPost, images) -> {
+            BlogPostSummaryDTO summary = mapper.blogPostsToSummary(blogPost);
+            summary.setCoverImage(images.stream().min(Comparator.comparing(BlogImages::getId)).orElse(null));
+            return summary;
+        });
+    }
+
+    /**
+     * Maps blog posts to DTOs together with their images, loading the images with one
+     * IN (...) query per window of {@value #IMAGE_BATCH_SIZE} posts instead of one query per post.
+     */
+    private <T> Flux<T> withImages(Flux<BlogPosts> blogPosts, BiFunction<BlogPosts, List<BlogImages>, T> toDto) {
+        return blogPosts
+                .buffer(IMAGE_BATCH_SIZE)
+                .concatMap(window -> {
+                    List<Long> ids = window.stream().map(BlogPosts::getId).toList();
+                    return imagesRepository.findByBlogPostIds(ids)
+                            .collect(Collectors.groupingBy(BlogImages::getBlogPostId))
+                            .flatMapIterable(imagesByPostId -> window.stream()
+                                    .map(blogPost -> toDto.apply(blogPost,
+                                            imagesByPostId.getOrDefault(blogPost.getId(), new ArrayList<>())))
+                                    .toList());
+                });
+    }
+
+    /**
+     * Saves an edit of the post with a single {@code UPDATE ... WHERE id = ? AND version = ?}. The edit must name
+     * the version it is based on (428 otherwise) and that must still be the current one, otherwise it fails
+     * with 409 instead of overwriting a concurrent change. Only the save and the image rows share a
+     * transaction; markdown is rendered before it and removed images are queued for S3 in it.
+     */
     public Mono<BlogPostsDTO> updateBlogPost(Long id, BlogPosts blogPost, Flux<String> imageUrls) {
         return blogPostsRepository.findById(id)
                 .switchIfEmpty(Mono.error(new HttpException(HttpStatus.NOT_FOUND, "Blog Post Not Found")))
@@ -182,6 +543,17 @@ public class BlogPostsService {
                     if (!Objects.equals(existingBlogPost.getAuthorId(), blogPost.getAuthorId())) {
                         return Mono.error(new HttpException(HttpStatus.FORBIDDEN, "Author ID Does Not Match"));
                     }
+                    if (invalidSchedule(blogPost)) {
+                        return Mono.error(new HttpException(HttpStatus.BAD_REQUEST, "Scheduled posts need a publishAt in the future"));
+                    }
+                    if (blogPost.getVersion() == null) {
+                        return Mono.error(new HttpException(HttpStatus.PRECONDITION_REQUIRED,
+                                "Send the version being edited as If-Match or in the blog post"));
+                    }
+                    if (!blogPost.getVersion().equals(existingBlogPost.getVersion())) {
+                        // Stale already, no need to render or open a transaction
+                        return Mono.error(versionConflict(id));
+                    }
 
                     blogPost.setCreatedAt(existingBlogPost.getCreatedAt());
                     blogPost.setUpdatedAt(ZonedDateTime.now());
@@ -190,21 +562,26 @@ public class BlogPostsService {
                     // Ensure imageUrls is never null (avoids NullPointerException)
                     Flux<String> validImageUrls = imageUrls != null ? imageUrls.flatMap(this::parseJsonArray) : Flux.empty();
 
-                    return this.handleImageChanges(id, validImageUrls)
-                            .flatMap(updatedImageUrls -> blogPostsRepository.save(blogPost)
-                                    .map(savedBlogPost -> {
-                                        BlogPostsDTO dto = mapper.blogPostsToBlogPostsDTO(savedBlogPost);
-                                        dto.setImages(updatedImageUrls);
-                                        return dto;
-                                    }));
+                    return withRenderedContent(blogPost)
+                            .flatMap(rendered -> transactionalOperator.transactional(blogPostsRepository.save(rendered)
+                                    .flatMap(savedBlogPost -> this.handleImageChanges(id, validImageUrls)
+                                            .map(updatedImages -> {
+                                                BlogPostsDTO dto = mapper.blogPostsToBlogPostsDTO(savedBlogPost);
+                                                dto.setImages(updatedImages);
+                                                return dto;
+                                            }))
+                                    .flatMap(dto -> publishChange(BlogPostChangedEvent.Type.UPDATED, dto).thenReturn(dto))));
                 })
+                .onErrorMap(OptimisticLockingFailureException.class, err -> versionConflict(id))
                 .onErrorResume(err -> {
                     log.error("Error updating blog post: {}", err.getMessage());
                     return Mono.error(err);
                 });
     }
 
-
+    private static HttpException versionConflict(Long id) {
+        return new HttpException(HttpStatus.CONFLICT, "Blog post " + id + " was changed by someone else, reload it and try again");
+    }
 
     private Mono<List<BlogImages>> handleImageChanges(Long blogPostId, Flux<String> imageUrls) {
         // Fetch existing blog post and associated images
@@ -244,7 +621,8 @@ public class BlogPostsService {
                     .collect(Collectors.toSet());
 
             // Remove images that are no longer needed
-            return deleteRemovedImages(removedImageKeys)
+            return TransactionCallbacks.afterCommit(() -> blogPostCache.invalidate(blogPostId))
+                    .then(deleteRemovedImages(removedImageKeys))
                     .thenMany(setImageBlogId(newImagesToAdd, blogPostId)) // Save new images
                     .collectList()
                     .flatMap(savedImages -> existingBlogPostMono.map(existingBlogPost -> {
@@ -269,49 +647,174 @@ public class BlogPostsService {
     }
 
 
-    private Mono<Void>  deleteRemovedImages(Set<String> removedImageKeys) {
+    private Mono<Void> deleteRemovedImages(Set<String> removedImageKeys) {
         if (removedImageKeys.isEmpty()) {
             return Mono.empty(); // No images to delete
         }
+        // The rows and the queued keys commit together; ImageCleanupQueue deletes the objects from S3 afterwards
         return imagesRepository.findAllByImageKeys(removedImageKeys)
-                .flatMap(blogImages -> {
-                    return s3Service.deleteRickCloudyBlogImage(blogImages.getImageKey())
-                            .then(imagesRepository.delete(blogImages));
-                })
+                .concatMap(blogImages -> imagesRepository.delete(blogImages).thenReturn(blogImages.getImageKey()))
+                .collectList()
+                .flatMap(imagesRepository::queueDeletions)
                 .then();
     }
 
+    /**
+     * Soft-deletes the post with one conditional UPDATE, whatever its status. Its images are queued for
+     * removal from S3 rather than deleted while the caller waits.
+     */
     public Mono<Void> deleteBlogPost(Long id) {
-        return this.getBlogPostById(id)
-                .flatMap(dto -> {
-                    return Mono.just(mapper.dtoToBlogPosts(dto));
+        return blogPostsRepository.markDeleted(id)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(new BlogPostNotFoundException(HttpStatus.NOT_FOUND, "Blog Post Not Found"));
+                    }
+                    imageCleanupQueue.enqueue(id);
+                    // Listeners only need the id and the new status of a deleted post
+                    return publishChange(BlogPostChangedEvent.Type.DELETED,
+                            BlogPostsDTO.builder().id(id).status(BlogStatus.DELETED).build());
+                });
+    }
 
-                })
-                .flatMap(blogPost -> {
-                    blogPost.setStatus(BlogStatus.DELETED);
-                    return blogPostsRepository.save(blogPost).then();
+    /**
+     * Moves the given posts to {@code status} with one UPDATE per batch of {@value #STATUS_BATCH_SIZE} ids
+     * instead of a full save per post, and reports what happened to each id. Each batch commits on its own,
+     * then drops its posts from the cache and notifies listeners in one go.
+     */
+    public Flux<BlogStatusChangeResult> changeStatus(List<Long> ids, BlogStatus status) {
+        return Flux.fromIterable(new LinkedHashSet<>(ids))
+                .buffer(STATUS_BATCH_SIZE)
+                .concatMap(batch -> transactionalOperator.transactional(changeStatusBatch(batch, status)));
+    }
+
+    private Flux<BlogStatusChangeResult> changeStatusBatch(List<Long> ids, BlogStatus status) {
+        // The rows stay locked until commit, so the reported previous status is the one that was replaced
+        return blogPostsRepository.findStatusesForUpdate(ids)
+                .collectMap(BlogPosts::getId, BlogPosts::getStatus)
+                .flatMapMany(previous -> {
+                    List<Long> changed = ids.stream()
+                            .filter(id -> previous.containsKey(id) && previous.get(id) != status)
+                            .toList();
+                    BlogPostChangedEvent.Type type = status == BlogStatus.DELETED
+                            ? BlogPostChangedEvent.Type.DELETED
+                            : BlogPostChangedEvent.Type.UPDATED;
+                    // Listeners index and list newly published posts, which takes their bodies and cover images;
+                    // any other status only takes posts out of them, for which the id and status are enough
+                    Flux<BlogPostsDTO> changedPosts = status == BlogStatus.PUBLISHED
+                            ? withImages(blogPostsRepository.findAllById(changed), this::toDto)
+                            : Flux.fromIterable(changed).map(id -> BlogPostsDTO.builder().id(id).status(status).build());
+                    Mono<Void> cleanup = status == BlogStatus.DELETED
+                            ? TransactionCallbacks.afterCommit(() -> changed.forEach(imageCleanupQueue::enqueue))
+                            : Mono.empty();
+                    return blogPostsRepository.updateStatus(changed, status)
+                            .thenMany(changedPosts)
+                            .collectList()
+                            .flatMap(blogPosts -> publishChanges(type, blogPosts))
+                            .then(cleanup)
+                            .thenMany(Flux.fromIterable(ids)
+                                    .map(id -> new BlogStatusChangeResult(id, outcome(previous.get(id), status),
+                                            previous.get(id))));
                 });
     }
 
-    public Flux<BlogPostsDTO> findByQueryParam(Map<String, String> param) {
+    private static BlogStatusChangeResult.Outcome outcome(BlogStatus previous, BlogStatus status) {
+        if (previous == null) {
+            return BlogStatusChangeResult.Outcome.NOT_FOUND;
+        }
+        return previous == status ? BlogStatusChangeResult.Outcome.UNCHANGED : BlogStatusChangeResult.Outcome.UPDATED;
+    }
+
+    private BlogPostsDTO toDto(BlogPosts blogPost, List<BlogImages> images) {
+        BlogPostsDTO dto = mapper.blogPostsToBlogPostsDTO(blogPost);
+        dto.setImages(images);
+        return dto;
+    }
+
+    /**
+     * Notifies listeners of the given scheduled posts that have gone live, exactly as an edit would, so caches,
+     * feeds and indexes pick them up. Posts that are not published (yet) are skipped.
+     */
+    public Mono<Void> announcePublished(Collection<Long> ids) {
+        return Flux.fromIterable(ids)
+                .concatMap(blogPostsRepository::findByIdWithImages)
+                .filter(blogPost -> blogPost.getStatus() == BlogStatus.PUBLISHED)
+                .concatMap(blogPost -> publishChange(BlogPostChangedEvent.Type.UPDATED, blogPost))
+                .then();
+    }
+
+    /**
+     * Drops the cached copy and notifies listeners once the surrounding transaction commits, so neither
+     * ever sees a write that is rolled back.
+     */
+    private Mono<Void> publishChange(BlogPostChangedEvent.Type type, BlogPostsDTO blogPost) {
+        return TransactionCallbacks.afterCommit(() -> {
+            blogPostCache.invalidate(blogPost.getId());
+            eventPublisher.publishEvent(new BlogPostChangedEvent(type, blogPost));
+        });
+    }
+
+    // Same as publishChange, with one commit callback for the whole batch
+    private Mono<Void> publishChanges(BlogPostChangedEvent.Type type, List<BlogPostsDTO> blogPosts) {
+        if (blogPosts.isEmpty()) {
+            return Mono.empty();
+        }
+        return TransactionCallbacks.afterCommit(() -> blogPosts.forEach(blogPost -> {
+            blogPostCache.invalidate(blogPost.getId());
+            eventPublisher.publishEvent(new BlogPostChangedEvent(type, blogPost));
+        }));
+    }
+
+    public List<SearchHit> searchIndex(String query, int limit) {
+        return blogSearchIndex.search(query, limit);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(blogPostCache.stats());
+        Map<String, Object> loads = new LinkedHashMap<>();
+        loads.put("inFlight", blogPostLoads.inFlightCount());
+        loads.put("coalesced", blogPostLoads.coalescedCount());
+        stats.put("loads", loads);
+        return stats;
+    }
+
+    public Flux<BlogPostSummaryDTO> findByQueryParam(Map<String, String> param) {
+        return findByQueryParam(param, FieldSelection.ALL);
+    }
+
+    /**
+     * Every published post matching the filters, unpaged, for streamed listings and the sitemap. Completes
+     * empty when nothing matches, which for a stream is an empty body rather than an error.
+     */
+    public Flux<BlogPostSummaryDTO> findByQueryParam(Map<String, String> param, FieldSelection fields) {
         BlogStatus status = BlogStatus.fromString(param.getOrDefault("status", "PUBLISHED")); // Default to PUBLISHED
 
         if (status != BlogStatus.PUBLISHED) {
             return Flux.error(new UnauthorizedException("Authentication required for non-published blogs"));
         }
 
-        return blogPostsRepository.findByParams(param)
-                .filter(blog -> blog.getStatus() == BlogStatus.PUBLISHED) // Filter while streaming
-                .flatMap(blog -> imagesRepository.findByBlogPostId(blog.getId())
-                        .collectList()
-                        .map(images -> {
-                            BlogPostsDTO dto = mapper.blogPostsToBlogPostsDTO(blog);
-                            dto.setImages(images);
-                            return dto;
-                        })
-                        .doOnSuccess(res -> log.debug("Result : {} ", res))
-                )
-                .switchIfEmpty(Mono.error(new NotFoundException("No published blog posts found")));
+        // Filter on status in SQL rather than discarding other statuses after they were read
+        Map<String, String> publishedOnly = new HashMap<>(param);
+        publishedOnly.put("status", BlogStatus.PUBLISHED.name());
+        return toSummaries(blogPostsRepository.findSummariesByParams(publishedOnly, summaryColumns(fields)), fields)
+                .doOnNext(res -> log.debug("Result : {} ", res));
+    }
+
+    public Mono<CursorPage<BlogPostSummaryDTO>> findPageByQueryParam(Map<String, String> param, PageCursor cursor, int limit) {
+        return findPageByQueryParam(param, cursor, limit, FieldSelection.ALL);
+    }
+
+    public Mono<CursorPage<BlogPostSummaryDTO>> findPageByQueryParam(Map<String, String> param, PageCursor cursor, int limit,
+                                                                      FieldSelection fields) {
+        BlogStatus status = BlogStatus.fromString(param.getOrDefault("status", "PUBLISHED")); // Default to PUBLISHED
+
+        if (status != BlogStatus.PUBLISHED) {
+            return Mono.error(new UnauthorizedException("Authentication required for non-published blogs"));
+        }
+
+        // The status has to be part of the query, otherwise filtering after LIMIT would leave pages short
+        Map<String, String> publishedOnly = new HashMap<>(param);
+        publishedOnly.put("status", BlogStatus.PUBLISHED.name());
+        return toPage(blogPostsRepository.findByParams(publishedOnly, cursor, limit + 1, summaryColumns(fields)), limit, fields);
     }
 
 
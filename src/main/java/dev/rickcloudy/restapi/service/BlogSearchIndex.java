@@ -0,0 +1,298 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.SearchHit;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.helper.TextTokenizer;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the title and content of published blog posts, ranked with BM25.
+ * <p>
+ * Every indexed post gets an int ordinal; each term maps to parallel {@code int[]} arrays of ordinals and
+ * term frequencies. Replacing or removing a post only tombstones its old ordinal, and the postings are
+ * compacted once tombstones outnumber live posts.
+ * <p>
+ * The startup load runs while change events already arrive. Posts changed during the load are remembered, and
+ * a row the load read before that change does not replace what the event put in the index.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlogSearchIndex {
+    private static final Logger log = LogManager.getLogger(BlogSearchIndex.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Title tokens count as this many content tokens
+    private static final int TITLE_WEIGHT = 2;
+    private static final int MIN_COMPACTION_TOMBSTONES = 256;
+
+    private final BlogPostsRepository blogPostsRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> index = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] postIds = new long[64];
+    private String[] titles = new String[64];
+    private int[] lengths = new int[64];
+    private int nextOrdinal;
+    private int liveDocs;
+    private long totalLength;
+    // Ids indexed or removed through events while the startup load runs; null otherwise
+    private Set<Long> changedDuringBuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        setChangedDuringBuild(new HashSet<>());
+        blogPostsRepository.findByParams(Map.of("status", BlogStatus.PUBLISHED.name()))
+                .doOnNext(post -> index(post.getId(), post.getTitle(), post.contentText(), true))
+                .doFinally(signal -> setChangedDuringBuild(null))
+                .count()
+                .subscribe(
+                        count -> log.info("Indexed {} published blog posts for search", count),
+                        err -> log.error("Failed to build the blog search index", err));
+    }
+
+    @EventListener
+    public void onBlogPostChanged(BlogPostChangedEvent event) {
+        BlogPostsDTO blogPost = event.getBlogPost();
+        if (event.getType() != BlogPostChangedEvent.Type.DELETED && blogPost.getStatus() == BlogStatus.PUBLISHED) {
+            index(blogPost.getId(), blogPost.getTitle(), blogPost.getContent());
+        } else {
+            remove(blogPost.getId());
+        }
+    }
+
+    /**
+     * Adds the post, replacing any earlier version of it.
+     */
+    public void index(Long postId, String title, String content) {
+        index(postId, title, content, false);
+    }
+
+    private void index(Long postId, String title, String content, boolean initialLoad) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : TextTokenizer.tokenize(title)) {
+            frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String token : TextTokenizer.tokenize(content)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                // A row from the startup load may be older than what an event already put here
+                if (initialLoad && changedDuringBuild.contains(postId)) {
+                    return;
+                }
+                if (!initialLoad) {
+                    changedDuringBuild.add(postId);
+                }
+            }
+            removeLocked(postId);
+            int ordinal = nextOrdinal++;
+            ensureCapacity(ordinal + 1);
+            postIds[ordinal] = postId;
+            titles[ordinal] = title;
+            lengths[ordinal] = length;
+            live.set(ordinal);
+            ordinals.put(postId, ordinal);
+            liveDocs++;
+            totalLength += length;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                index.computeIfAbsent(entry.getKey(), term -> new Postings()).add(ordinal, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(postId);
+            }
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || liveDocs == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / liveDocs;
+            double[] scores = new double[nextOrdinal];
+            BitSet matched = new BitSet(nextOrdinal);
+
+            for (String term : terms) {
+                Postings postings = index.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                int documentFrequency = postings.liveCount(live);
+                if (documentFrequency == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = postings.ordinals[i];
+                    if (!live.get(ordinal)) {
+                        continue;
+                    }
+                    int tf = postings.frequencies[i];
+                    double norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                    matched.set(ordinal);
+                }
+            }
+
+            // Keep the best `limit` ordinals in a min-heap on score
+            PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingDouble(ordinal -> scores[ordinal]));
+            for (int ordinal = matched.nextSetBit(0); ordinal >= 0; ordinal = matched.nextSetBit(ordinal + 1)) {
+                top.offer(ordinal);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                int ordinal = top.poll();
+                hits.add(new SearchHit(postIds[ordinal], titles[ordinal], scores[ordinal]));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void setChangedDuringBuild(Set<Long> changed) {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long postId) {
+        Integer ordinal = ordinals.remove(postId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        titles[ordinal] = null;
+        liveDocs--;
+        totalLength -= lengths[ordinal];
+
+        int tombstones = nextOrdinal - liveDocs;
+        if (tombstones >= MIN_COMPACTION_TOMBSTONES && tombstones > liveDocs) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumbers live posts densely and drops tombstoned entries from every postings list.
+     */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        int next = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (live.get(ordinal)) {
+                remap[ordinal] = next;
+                postIds[next] = postIds[ordinal];
+                titles[next] = titles[ordinal];
+                lengths[next] = lengths[ordinal];
+                next++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        Arrays.fill(titles, next, nextOrdinal, null);
+        index.values().removeIf(postings -> postings.retain(remap) == 0);
+        ordinals.replaceAll((postId, ordinal) -> remap[ordinal]);
+        live.clear();
+        live.set(0, next);
+        log.debug("Compacted blog search index from {} to {} ordinals", nextOrdinal, next);
+        nextOrdinal = next;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > postIds.length) {
+            int newLength = Math.max(capacity, postIds.length * 2);
+            postIds = Arrays.copyOf(postIds, newLength);
+            titles = Arrays.copyOf(titles, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int liveCount(BitSet live) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (live.get(ordinals[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept] = ordinal;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import dev.rickcloudy.restapi.repository.BlogPostsSummaryCallback;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fills in the excerpts a migration left empty, using the same {@link BlogPostsSummaryCallback#excerpt(String)}
+ * as every write, so a backfilled listing reads exactly like one saved through the application.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExcerptBackfill {
+    private static final Logger log = LogManager.getLogger(ExcerptBackfill.class);
+    private static final int BATCH_SIZE = 100;
+
+    private final BlogPostsRepository blogPostsRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        run().subscribe(
+                count -> {
+                    if (count > 0) {
+                        log.info("Backfilled the excerpts of {} blog posts", count);
+                    }
+                },
+                err -> log.error("Failed to backfill blog post excerpts", err));
+    }
+
+    /**
+     * Works through the posts without an excerpt a batch at a time until none are left.
+     */
+    public Mono<Long> run() {
+        return Mono.defer(() -> blogPostsRepository.findMissingExcerpts(BATCH_SIZE)
+                        .concatMap(this::backfill)
+                        .count())
+                .repeat()
+                .takeUntil(count -> count < BATCH_SIZE)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> backfill(BlogPosts blogPost) {
+        // A post without any body still gets an empty excerpt, so it is not picked up again
+        String content = blogPost.contentText();
+        return blogPostsRepository.updateExcerpt(blogPost.getId(),
+                BlogPostsSummaryCallback.excerpt(content != null ? content : ""));
+    }
+}
@@ -0,0 +1,138 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.entity.BlogImages;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.mapper.BlogPostMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * The newest published posts, newest first, kept in memory for the home page feed.
+ * <p>
+ * Readers take the current array without locking; writers build a new sorted array and publish it through
+ * the volatile field, so a reader always sees a complete snapshot.
+ */
+@Service
+public class FeedService {
+    private static final Logger log = LogManager.getLogger(FeedService.class);
+    private static final Comparator<BlogPostSummaryDTO> NEWEST_FIRST = Comparator
+            .comparing(BlogPostSummaryDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(BlogPostSummaryDTO::getId, Comparator.reverseOrder());
+
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final BlogPostsService blogPostsService;
+    private final BlogPostMapper mapper;
+    private final int capacity;
+    private volatile BlogPostSummaryDTO[] feed = new BlogPostSummaryDTO[0];
+    // Bumped after every new feed array, so anything derived from the feed can be cached against it
+    private volatile long version;
+
+    public FeedService(BlogPostsService blogPostsService, BlogPostMapper mapper, RickCloudyProperties properties) {
+        this.blogPostsService = blogPostsService;
+        this.mapper = mapper;
+        this.capacity = properties.getBlog().getFeedSize();
+    }
+
+    public List<BlogPostSummaryDTO> latest(int limit) {
+        BlogPostSummaryDTO[] snapshot = feed;
+        return List.of(Arrays.copyOf(snapshot, Math.min(limit, snapshot.length)));
+    }
+
+    /**
+     * Read this before {@link #latest(int)}: a result built from the feed is then at least as new as the
+     * version it is cached under.
+     */
+    public long version() {
+        return version;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        reload(MAX_RELOAD_ATTEMPTS);
+    }
+
+    /**
+     * Loads the feed from the database. A change patched in while the query runs may be missing from its
+     * result, so that result is dropped and the query run again rather than overwriting the newer feed.
+     */
+    private void reload(int attemptsLeft) {
+        long started = version;
+        blogPostsService.findPageByQueryParam(Collections.emptyMap(), null, capacity)
+                .subscribe(
+                        page -> {
+                            if (replace(page.getItems(), started)) {
+                                log.info("Loaded {} posts into the feed", page.getItems().size());
+                            } else if (attemptsLeft > 1) {
+                                reload(attemptsLeft - 1);
+                            } else {
+                                log.warn("Feed kept changing while loading it, keeping the patched feed");
+                            }
+                        },
+                        err -> log.error("Failed to load the feed", err));
+    }
+
+    @EventListener
+    public void onBlogPostChanged(BlogPostChangedEvent event) {
+        BlogPostsDTO blogPost = event.getBlogPost();
+        boolean published = event.getType() != BlogPostChangedEvent.Type.DELETED
+                && blogPost.getStatus() == BlogStatus.PUBLISHED;
+        boolean refill;
+        synchronized (this) {
+            BlogPostSummaryDTO[] current = feed;
+            boolean wasFull = current.length == capacity;
+            List<BlogPostSummaryDTO> next = new ArrayList<>(current.length + 1);
+            for (BlogPostSummaryDTO summary : current) {
+                if (!summary.getId().equals(blogPost.getId())) {
+                    next.add(summary);
+                }
+            }
+            if (published) {
+                next.add(toSummary(blogPost));
+            }
+            publish(next);
+            // A post that left a full feed leaves a gap only the database can fill
+            refill = wasFull && feed.length < capacity;
+        }
+        if (refill) {
+            reload();
+        }
+    }
+
+    private synchronized boolean replace(List<BlogPostSummaryDTO> summaries, long expectedVersion) {
+        if (version != expectedVersion) {
+            return false;
+        }
+        publish(new ArrayList<>(summaries));
+        return true;
+    }
+
+    private void publish(List<BlogPostSummaryDTO> summaries) {
+        summaries.sort(NEWEST_FIRST);
+        feed = summaries.subList(0, Math.min(capacity, summaries.size())).toArray(new BlogPostSummaryDTO[0]);
+        version++;
+    }
+
+    private BlogPostSummaryDTO toSummary(BlogPostsDTO blogPost) {
+        BlogPostSummaryDTO summary = mapper.dtoToSummary(blogPost);
+        if (blogPost.getImages() != null) {
+            summary.setCoverImage(blogPost.getImages().stream()
+                    .min(Comparator.comparing(BlogImages::getId))
+                    .orElse(null));
+        }
+        return summary;
+    }
+}
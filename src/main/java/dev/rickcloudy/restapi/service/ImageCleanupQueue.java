@@ -0,0 +1,114 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.repository.BlogImagesRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes the images of deleted blog posts from S3 and from {@code blog_images} in the background, so
+ * deleting a post is a single UPDATE.
+ * <p>
+ * Queued posts are drained every few seconds, and only while they are still DELETED, so a post restored in
+ * the meantime keeps its images. The queue lives in memory; an hourly sweep finds deleted posts that still
+ * have images after a restart or a failed S3 call.
+ * <p>
+ * Images removed from a post that lives on have no row left to find them by, so their keys wait in
+ * {@code blog_image_deletions} instead and each one leaves that table only once S3 has deleted the object.
+ */
+@Component
+public class ImageCleanupQueue {
+    private static final Logger log = LogManager.getLogger(ImageCleanupQueue.class);
+    private static final int CONCURRENCY = 4;
+    private static final int REMOVED_IMAGES_BATCH = 100;
+
+    private final BlogImagesRepository imagesRepository;
+    private final S3Service s3Service;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ImageCleanupQueue(BlogImagesRepository imagesRepository, S3Service s3Service) {
+        this.imagesRepository = imagesRepository;
+        this.s3Service = s3Service;
+    }
+
+    public void enqueue(Long blogPostId) {
+        pending.add(blogPostId);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    // The scheduler obtains this Mono once and re-subscribes it on every run, so the work must be deferred
+    @Scheduled(fixedDelayString = "${rickcloudy.blog.image-cleanup-interval:PT10S}",
+            initialDelayString = "${rickcloudy.blog.image-cleanup-interval:PT10S}")
+    public Mono<Void> drain() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            return drainPending()
+                    .then(drainRemovedImages())
+                    .doFinally(signal -> running.set(false));
+        });
+    }
+
+    private Mono<Void> drainPending() {
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Long> blogPostIds = new ArrayList<>(pending);
+        pending.removeAll(blogPostIds);
+        return imagesRepository.findByDeletedBlogPostIds(blogPostIds)
+                .flatMap(image -> s3Service.deleteRickCloudyBlogImage(image.getImageKey())
+                        .then(imagesRepository.delete(image))
+                        .onErrorResume(err -> {
+                            log.warn("Failed to remove image {} of deleted blog post {}, will retry",
+                                    image.getImageKey(), image.getBlogPostId(), err);
+                            pending.add(image.getBlogPostId());
+                            return Mono.empty();
+                        }), CONCURRENCY)
+                .count()
+                .doOnSuccess(count -> log.debug("Processed {} images of {} deleted blog posts", count, blogPostIds.size()))
+                .doOnError(err -> {
+                    log.error("Failed to load images of deleted blog posts", err);
+                    pending.addAll(blogPostIds);
+                })
+                .onErrorResume(err -> Mono.empty())
+                .then();
+    }
+
+    // A key whose S3 call fails stays in the table and is tried again on the next run
+    private Mono<Void> drainRemovedImages() {
+        return imagesRepository.findQueuedDeletions(REMOVED_IMAGES_BATCH)
+                .flatMap(imageKey -> s3Service.deleteRickCloudyBlogImage(imageKey)
+                        .then(imagesRepository.removeQueuedDeletion(imageKey))
+                        .onErrorResume(err -> {
+                            log.warn("Failed to delete removed image {} from S3, will retry", imageKey, err);
+                            return Mono.empty();
+                        }), CONCURRENCY)
+                .count()
+                .doOnSuccess(count -> log.debug("Processed {} removed images", count))
+                .doOnError(err -> log.error("Failed to load removed images", err))
+                .onErrorResume(err -> Mono.empty())
+                .then();
+    }
+
+    @Scheduled(cron = "${rickcloudy.blog.image-cleanup-sweep-cron:0 15 * * * *}")
+    public Mono<Void> sweep() {
+        return Mono.defer(() -> imagesRepository.findDeletedBlogPostIdsWithImages()
+                .doOnNext(pending::add)
+                .then()
+                .doOnError(err -> log.error("Failed to find deleted blog posts with images", err))
+                .onErrorResume(err -> Mono.empty()));
+    }
+}
@@ -0,0 +1,108 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.dto.TocEntry;
+import dev.rickcloudy.restapi.repository.BlogPostsSummaryCallback;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Code;
+import org.commonmark.node.Heading;
+import org.commonmark.node.Node;
+import org.commonmark.node.Text;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+
+/**
+ * Renders post Markdown to HTML once, when a post is written. Raw HTML in the Markdown is escaped and
+ * unsafe link schemes are dropped, so the stored output can be served as-is.
+ */
+@Component
+public class MarkdownRenderer {
+    private static final int WORDS_PER_MINUTE = 200;
+
+    private final Parser parser = Parser.builder().build();
+    // Parsing is pure CPU work: keep it off the event loop, on workers bounded by the core count
+    private final Scheduler scheduler = Schedulers.parallel();
+
+    @Getter
+    @AllArgsConstructor
+    public static class Rendered {
+        private final String html;
+        private final List<TocEntry> tableOfContents;
+        private final int readingTimeMinutes;
+    }
+
+    public Mono<Rendered> render(String markdown) {
+        return Mono.fromCallable(() -> renderNow(markdown)).subscribeOn(scheduler);
+    }
+
+    Rendered renderNow(String markdown) {
+        Node document = parser.parse(markdown);
+
+        // Give every heading a unique slug, then let the renderer write it as the element id
+        Map<Node, String> anchors = new IdentityHashMap<>();
+        List<TocEntry> toc = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Heading heading) {
+                String text = textOf(heading);
+                String anchor = uniqueSlug(text, used);
+                anchors.put(heading, anchor);
+                toc.add(new TocEntry(heading.getLevel(), text, anchor));
+            }
+        });
+
+        HtmlRenderer renderer = HtmlRenderer.builder()
+                .escapeHtml(true)
+                .sanitizeUrls(true)
+                .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                    String anchor = anchors.get(node);
+                    if (anchor != null) {
+                        attributes.put("id", anchor);
+                    }
+                })
+                .build();
+
+        int words = BlogPostsSummaryCallback.wordCount(markdown);
+        int minutes = words == 0 ? 0 : Math.max(1, (words + WORDS_PER_MINUTE - 1) / WORDS_PER_MINUTE);
+        return new Rendered(renderer.render(document), List.copyOf(toc), minutes);
+    }
+
+    private static String textOf(Node node) {
+        StringBuilder text = new StringBuilder();
+        node.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Text t) {
+                text.append(t.getLiteral());
+            }
+
+            @Override
+            public void visit(Code code) {
+                text.append(code.getLiteral());
+            }
+        });
+        return text.toString().strip();
+    }
+
+    private static String uniqueSlug(String text, Set<String> used) {
+        String base = text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}\\s-]", "")
+                .strip()
+                .replaceAll("[\\s-]+", "-");
+        if (base.isEmpty()) {
+            base = "section";
+        }
+        String slug = base;
+        for (int i = 1; !used.add(slug); i++) {
+            slug = base + "-" + i;
+        }
+        return slug;
+    }
+}
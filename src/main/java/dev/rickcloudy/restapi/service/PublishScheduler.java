@@ -0,0 +1,123 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.helper.HashedTimerWheel;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Flips SCHEDULED posts to PUBLISHED when their publish_at comes, without polling the table.
+ * <p>
+ * Every scheduled post sits in an in-memory timer wheel, loaded from the database on startup and kept in sync
+ * by the change events {@link BlogPostsService} publishes. Each second the due posts are published in small
+ * batches. A batch first reads its due rows with {@code SELECT ... FOR UPDATE}, which locks them until it
+ * commits: a batch for the same posts on another node or thread waits for those locks, then finds the posts
+ * already published and changes nothing. Only the batch that flipped a post announces it, so each post goes
+ * live and is announced once; other nodes catch up the way they do with any write made elsewhere.
+ */
+@Service
+@RequiredArgsConstructor
+public class PublishScheduler {
+    private static final Logger log = LogManager.getLogger(PublishScheduler.class);
+    private static final int BATCH_SIZE = 50;
+    // 512 one-second slots: one revolution covers about eight and a half minutes
+    private static final int WHEEL_SLOTS = 512;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final BlogPostsRepository blogPostsRepository;
+    private final BlogPostsService blogPostsService;
+    private final TransactionalOperator transactionalOperator;
+    private final HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), WHEEL_SLOTS, Instant.now());
+
+    @EventListener
+    public void onBlogPostChanged(BlogPostChangedEvent event) {
+        BlogPostsDTO blogPost = event.getBlogPost();
+        if (event.getType() != BlogPostChangedEvent.Type.DELETED
+                && blogPost.getStatus() == BlogStatus.SCHEDULED && blogPost.getPublishAt() != null) {
+            wheel.schedule(blogPost.getId(), blogPost.getPublishAt().toInstant());
+        } else {
+            wheel.cancel(blogPost.getId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reload().subscribe();
+    }
+
+    /**
+     * Schedules every post the database holds as SCHEDULED. Besides startup this picks up, now and then, posts
+     * scheduled through other nodes, whose change events this node never sees.
+     */
+    @Scheduled(fixedDelayString = "${rickcloudy.blog.publish-reload-interval:PT10M}",
+            initialDelayString = "${rickcloudy.blog.publish-reload-interval:PT10M}")
+    public Mono<Void> reload() {
+        // Scheduled Monos are obtained once and re-subscribed on every run
+        return Mono.defer(() -> blogPostsRepository.findScheduled()
+                .doOnNext(post -> wheel.schedule(post.getId(), post.getPublishAt().toInstant()))
+                .count()
+                .doOnSuccess(count -> log.info("Loaded {} scheduled posts", count))
+                .doOnError(err -> log.error("Failed to load scheduled posts", err))
+                .onErrorResume(err -> Mono.empty())
+                .then());
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        List<Long> due = wheel.advance(Instant.now());
+        if (due.isEmpty()) {
+            return;
+        }
+        Flux.fromIterable(due)
+                .buffer(BATCH_SIZE)
+                .concatMap(this::publish)
+                .subscribe();
+    }
+
+    // Package-private for tests that fire the same batch concurrently
+    Mono<Void> publish(List<Long> ids) {
+        ZonedDateTime now = ZonedDateTime.now();
+        Mono<List<Long>> flipped = transactionalOperator.transactional(blogPostsRepository.findDueForUpdate(ids, now)
+                .collectList()
+                .flatMap(due -> blogPostsRepository.publishScheduled(due, now)
+                        .doOnNext(count -> log.info("Published {} of {} scheduled posts", count, ids.size()))
+                        .thenReturn(due)));
+
+        return flipped
+                // Posts moved to a later publish_at through another node go back on the wheel
+                .flatMap(due -> blogPostsRepository.findScheduled(ids)
+                        .doOnNext(post -> wheel.schedule(post.getId(), post.getPublishAt().toInstant()))
+                        .then(blogPostsService.announcePublished(due)))
+                .doOnError(err -> {
+                    log.error("Failed to publish scheduled posts {}", ids, err);
+                    retry(ids);
+                })
+                .onErrorResume(err -> Mono.empty());
+    }
+
+    // Posts rescheduled meanwhile keep their newer time; cancelled ones come back but the UPDATE skips them
+    private void retry(List<Long> ids) {
+        Instant at = Instant.now().plus(RETRY_DELAY);
+        for (Long id : ids) {
+            if (!wheel.contains(id)) {
+                wheel.schedule(id, at);
+            }
+        }
+    }
+}
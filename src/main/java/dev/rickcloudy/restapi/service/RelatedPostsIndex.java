@@ -0,0 +1,261 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.helper.TextTokenizer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * TF-IDF vectors of published posts and each post's top-K most similar posts by cosine similarity.
+ * <p>
+ * A post's vector is a pair of sorted primitive arrays (term ids and log-scaled term frequencies); each term
+ * keeps parallel arrays of post ordinals and frequencies, so the similarities of one post to all others are
+ * accumulated over its own terms' postings only. IDF weights and vector norms are taken as a snapshot by
+ * {@link #refreshWeights()}.
+ * <p>
+ * Not thread-safe for writes. {@link #topK(long)} may run concurrently once writes and
+ * {@link #refreshWeights()} are done.
+ */
+public class RelatedPostsIndex {
+    // Title tokens count as this many content tokens
+    private static final int TITLE_WEIGHT = 2;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Neighbour {
+        private final long postId;
+        private final float score;
+    }
+
+    private static final class Vector {
+        final int[] terms;
+        final float[] weights;
+
+        Vector(int[] terms, float[] weights) {
+            this.terms = terms;
+            this.weights = weights;
+        }
+    }
+
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    // Order does not matter, so swap the last entry in
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final int k;
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private long[] postIds = new long[64];
+    private Vector[] vectors = new Vector[64];
+    private int nextOrdinal;
+    private final Map<Long, Neighbour[]> neighbours = new HashMap<>();
+
+    private float[] idf = new float[0];
+    private float[] norms = new float[0];
+
+    public RelatedPostsIndex(int k) {
+        this.k = k;
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * Adds the post, replacing any earlier version of it.
+     */
+    public void put(long postId, String title, String content) {
+        remove(postId);
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (String token : TextTokenizer.tokenize(title)) {
+            counts.merge(termId(token), TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : TextTokenizer.tokenize(content)) {
+            counts.merge(termId(token), 1, Integer::sum);
+        }
+        int[] terms = counts.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        float[] weights = new float[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            weights[i] = (float) (1 + Math.log(counts.get(terms[i])));
+        }
+
+        int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        if (ordinal == postIds.length) {
+            postIds = Arrays.copyOf(postIds, ordinal * 2);
+            vectors = Arrays.copyOf(vectors, ordinal * 2);
+        }
+        postIds[ordinal] = postId;
+        vectors[ordinal] = new Vector(terms, weights);
+        ordinals.put(postId, ordinal);
+        for (int i = 0; i < terms.length; i++) {
+            postings.get(terms[i]).add(ordinal, weights[i]);
+        }
+    }
+
+    public void remove(long postId) {
+        Integer ordinal = ordinals.remove(postId);
+        if (ordinal == null) {
+            return;
+        }
+        for (int term : vectors[ordinal].terms) {
+            postings.get(term).remove(ordinal);
+        }
+        vectors[ordinal] = null;
+        freeOrdinals.push(ordinal);
+        neighbours.remove(postId);
+    }
+
+    /**
+     * Recomputes IDF from the current document frequencies and the norm of every vector.
+     */
+    public void refreshWeights() {
+        int documents = ordinals.size();
+        idf = new float[postings.size()];
+        for (int term = 0; term < idf.length; term++) {
+            idf[term] = (float) (Math.log((documents + 1.0) / (postings.get(term).size + 1.0)) + 1);
+        }
+        norms = new float[nextOrdinal];
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            Vector vector = vectors[ordinal];
+            if (vector == null) {
+                continue;
+            }
+            double sum = 0;
+            for (int i = 0; i < vector.terms.length; i++) {
+                double weight = vector.weights[i] * idf[vector.terms[i]];
+                sum += weight * weight;
+            }
+            norms[ordinal] = (float) Math.sqrt(sum);
+        }
+    }
+
+    /**
+     * The {@code k} posts most similar to {@code postId}, best first; empty for unknown posts.
+     */
+    public Neighbour[] topK(long postId) {
+        Integer ordinal = ordinals.get(postId);
+        if (ordinal == null) {
+            return new Neighbour[0];
+        }
+        float[] scores = similarities(ordinal);
+        PriorityQueue<Integer> best = new PriorityQueue<>(k + 1, Comparator.comparingDouble(o -> scores[o]));
+        for (int other = 0; other < scores.length; other++) {
+            if (scores[other] > 0 && other != ordinal) {
+                best.add(other);
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        }
+        Neighbour[] result = new Neighbour[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            int other = best.poll();
+            result[i] = new Neighbour(postIds[other], scores[other]);
+        }
+        return result;
+    }
+
+    public void setNeighbours(long postId, Neighbour[] related) {
+        if (ordinals.containsKey(postId)) {
+            neighbours.put(postId, related);
+        }
+    }
+
+    public Neighbour[] neighbours(long postId) {
+        return neighbours.getOrDefault(postId, new Neighbour[0]);
+    }
+
+    /**
+     * Posts whose top-K list may change because {@code postId} was added, edited or removed: the post itself,
+     * the posts that currently list it, and the posts it now scores high enough for.
+     */
+    public Set<Long> affectedBy(long postId) {
+        Set<Long> affected = new HashSet<>();
+        for (Map.Entry<Long, Neighbour[]> entry : neighbours.entrySet()) {
+            for (Neighbour neighbour : entry.getValue()) {
+                if (neighbour.getPostId() == postId) {
+                    affected.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        Integer ordinal = ordinals.get(postId);
+        if (ordinal == null) {
+            return affected;
+        }
+        affected.add(postId);
+        float[] scores = similarities(ordinal);
+        for (int other = 0; other < scores.length; other++) {
+            if (scores[other] <= 0 || other == ordinal) {
+                continue;
+            }
+            Neighbour[] current = neighbours(postIds[other]);
+            if (current.length < k || scores[other] > current[current.length - 1].getScore()) {
+                affected.add(postIds[other]);
+            }
+        }
+        return affected;
+    }
+
+    public Set<Long> postIds() {
+        return new HashSet<>(ordinals.keySet());
+    }
+
+    // Cosine similarity of one post to every ordinal, accumulated over the post's own terms
+    private float[] similarities(int ordinal) {
+        float[] scores = new float[nextOrdinal];
+        Vector vector = vectors[ordinal];
+        for (int i = 0; i < vector.terms.length; i++) {
+            int term = vector.terms[i];
+            if (term >= idf.length) {
+                // Term first seen after the last refreshWeights()
+                continue;
+            }
+            float weight = vector.weights[i] * idf[term] * idf[term];
+            Postings list = postings.get(term);
+            for (int p = 0; p < list.size; p++) {
+                scores[list.ordinals[p]] += weight * list.weights[p];
+            }
+        }
+        float norm = ordinal < norms.length ? norms[ordinal] : 0;
+        for (int other = 0; other < scores.length; other++) {
+            float otherNorm = other < norms.length ? norms[other] : 0;
+            scores[other] = norm > 0 && otherNorm > 0 ? scores[other] / (norm * otherNorm) : 0;
+        }
+        return scores;
+    }
+
+    private int termId(String token) {
+        return termIds.computeIfAbsent(token, t -> {
+            postings.add(new Postings());
+            return postings.size() - 1;
+        });
+    }
+}
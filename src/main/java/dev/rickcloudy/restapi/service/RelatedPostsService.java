@@ -0,0 +1,184 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.mapper.BlogPostMapper;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import dev.rickcloudy.restapi.repository.BlogRelatedRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@code blog_related} filled with each published post's most similar posts, so serving them is one
+ * indexed read.
+ * <p>
+ * The whole set is computed on startup and once a day. In between, changed posts are queued by the
+ * change events and only they and the posts whose lists they can enter or leave are recomputed.
+ */
+@Service
+public class RelatedPostsService {
+    private static final Logger log = LogManager.getLogger(RelatedPostsService.class);
+    private static final int WRITE_BATCH_SIZE = 200;
+
+    private final BlogPostsRepository blogPostsRepository;
+    private final BlogRelatedRepository blogRelatedRepository;
+    private final BlogPostMapper mapper;
+    private final RelatedPostsIndex index;
+    // Similarity scans are CPU-bound: a bounded pool sized to the cores, separate from the event loop
+    private final Scheduler scheduler = Schedulers.newParallel("related-posts",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    // The latest version of every post changed since the last run; empty means "remove"
+    private final Map<Long, Optional<BlogPostsDTO>> pending = new ConcurrentHashMap<>();
+    // One job at a time: the index is only written by the running job
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RelatedPostsService(BlogPostsRepository blogPostsRepository, BlogRelatedRepository blogRelatedRepository,
+                               BlogPostMapper mapper, RickCloudyProperties properties) {
+        this.blogPostsRepository = blogPostsRepository;
+        this.blogRelatedRepository = blogRelatedRepository;
+        this.mapper = mapper;
+        this.index = new RelatedPostsIndex(properties.getBlog().getRelatedPosts());
+    }
+
+    public Flux<BlogPostSummaryDTO> findRelated(Long blogPostId) {
+        return blogRelatedRepository.findRelated(blogPostId).map(mapper::blogPostsToSummary);
+    }
+
+    @EventListener
+    public void onBlogPostChanged(BlogPostChangedEvent event) {
+        BlogPostsDTO blogPost = event.getBlogPost();
+        boolean published = event.getType() != BlogPostChangedEvent.Type.DELETED
+                && blogPost.getStatus() == BlogStatus.PUBLISHED;
+        pending.put(blogPost.getId(), published ? Optional.of(blogPost) : Optional.empty());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        rebuild().subscribe();
+    }
+
+    /**
+     * Recomputes every post from the database, correcting the drift incremental updates leave as
+     * document frequencies change.
+     */
+    @Scheduled(cron = "${rickcloudy.blog.related-rebuild-cron:0 30 3 * * *}")
+    public Mono<Void> rebuild() {
+        // Scheduled Monos are obtained once and re-subscribed on every run
+        return Mono.defer(this::rebuildNow);
+    }
+
+    private Mono<Void> rebuildNow() {
+        if (!running.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        return blogPostsRepository.findByParams(Map.of("status", BlogStatus.PUBLISHED.name()))
+                .collectList()
+                .publishOn(scheduler)
+                .map(posts -> {
+                    for (Long id : index.postIds()) {
+                        index.remove(id);
+                    }
+                    for (BlogPosts post : posts) {
+                        index.put(post.getId(), post.getTitle(), post.contentText());
+                    }
+                    index.refreshWeights();
+                    return index.postIds();
+                })
+                .flatMap(postIds -> recompute(postIds)
+                        .flatMap(count -> blogRelatedRepository.deleteUnpublished().thenReturn(count)))
+                .doOnSuccess(count -> log.info("Computed related posts for {} posts", count))
+                .doOnError(err -> log.error("Failed to compute related posts", err))
+                .onErrorResume(err -> Mono.empty())
+                .doFinally(signal -> running.set(false))
+                .then();
+    }
+
+    @Scheduled(fixedDelayString = "${rickcloudy.blog.related-refresh-interval:PT30S}",
+            initialDelayString = "${rickcloudy.blog.related-refresh-interval:PT30S}")
+    public Mono<Void> refreshChanged() {
+        return Mono.defer(this::refreshChangedNow);
+    }
+
+    private Mono<Void> refreshChangedNow() {
+        if (pending.isEmpty() || !running.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        Map<Long, Optional<BlogPostsDTO>> changes = new HashMap<>();
+        for (Long id : new ArrayList<>(pending.keySet())) {
+            Optional<BlogPostsDTO> change = pending.remove(id);
+            if (change != null) {
+                changes.put(id, change);
+            }
+        }
+        return Mono.fromCallable(() -> {
+                    // Lists that contain a changed post must be found before it leaves the index
+                    Set<Long> affected = new HashSet<>();
+                    for (Long id : changes.keySet()) {
+                        affected.addAll(index.affectedBy(id));
+                    }
+                    changes.forEach((id, change) -> change.ifPresentOrElse(
+                            blogPost -> index.put(id, blogPost.getTitle(), blogPost.getContent()),
+                            () -> index.remove(id)));
+                    index.refreshWeights();
+                    for (Long id : changes.keySet()) {
+                        affected.addAll(index.affectedBy(id));
+                        affected.add(id);
+                    }
+                    return affected;
+                })
+                .subscribeOn(scheduler)
+                .flatMap(this::recompute)
+                .doOnSuccess(count -> log.debug("Recomputed related posts for {} posts after {} changes", count, changes.size()))
+                .doOnError(err -> {
+                    log.error("Failed to update related posts", err);
+                    // Queue the changes again unless a newer version arrived meanwhile
+                    changes.forEach(pending::putIfAbsent);
+                })
+                .onErrorResume(err -> Mono.empty())
+                .doFinally(signal -> running.set(false))
+                .then();
+    }
+
+    // Computes the lists of the given posts in parallel, then writes them in batches
+    private Mono<Integer> recompute(Set<Long> postIds) {
+        return Flux.fromIterable(postIds)
+                .parallel()
+                .runOn(scheduler)
+                .map(id -> Map.entry(id, index.topK(id)))
+                .sequential()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(related -> {
+                    related.forEach(index::setNeighbours);
+                    return Flux.fromIterable(related.entrySet())
+                            .buffer(WRITE_BATCH_SIZE)
+                            .concatMap(batch -> {
+                                Map<Long, RelatedPostsIndex.Neighbour[]> rows = new HashMap<>();
+                                batch.forEach(entry -> rows.put(entry.getKey(), entry.getValue()));
+                                return blogRelatedRepository.replace(rows);
+                            })
+                            .then(Mono.just(related.size()));
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,258 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.exception.HttpException;
+import dev.rickcloudy.restapi.helper.ConditionalRequests;
+import dev.rickcloudy.restapi.helper.FieldSelection;
+import dev.rickcloudy.restapi.helper.SingleFlight;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RSS, Atom and sitemap documents, built with a streaming XML writer and kept as bytes until the posts
+ * behind them change. The feeds are rebuilt from {@link FeedService}'s in-memory list; only the sitemap
+ * reads the database, and only after a post was written.
+ */
+@Service
+public class SyndicationService {
+    private static final Logger log = LogManager.getLogger(SyndicationService.class);
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    // Limit of a single sitemap file; more than this would need a sitemap index
+    private static final int SITEMAP_MAX_URLS = 50_000;
+    private static final XMLOutputFactory XML = XMLOutputFactory.newFactory();
+
+    private final FeedService feedService;
+    private final BlogPostsService blogPostsService;
+    private final String siteUrl;
+    private final String siteTitle;
+    private final AtomicLong sitemapGeneration = new AtomicLong();
+    private final SingleFlight<Build, Document> builds = new SingleFlight<>();
+    private volatile Document rss;
+    private volatile Document atom;
+    private volatile Document sitemap;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Document {
+        private final long version;
+        private final byte[] body;
+        private final String etag;
+        private final ZonedDateTime lastModified;
+    }
+
+    // A request that sees a newer version than a running build starts its own instead of joining the stale one
+    private record Build(String document, long version) {}
+
+    public SyndicationService(FeedService feedService, BlogPostsService blogPostsService, RickCloudyProperties properties) {
+        this.feedService = feedService;
+        this.blogPostsService = blogPostsService;
+        this.siteUrl = properties.getBlog().getSiteUrl().replaceAll("/+$", "");
+        this.siteTitle = properties.getBlog().getSiteTitle();
+    }
+
+    // Published after commit, so a sitemap rebuilt from here on sees the change
+    @EventListener
+    public void onBlogPostChanged(BlogPostChangedEvent event) {
+        sitemapGeneration.incrementAndGet();
+    }
+
+    public Mono<Document> rss() {
+        long version = feedService.version();
+        Document cached = rss;
+        if (cached != null && cached.getVersion() == version) {
+            return Mono.just(cached);
+        }
+        return builds.execute(new Build("rss", version),
+                () -> Mono.fromCallable(() -> feedDocument(version, this::writeRss))
+                        .doOnNext(document -> rss = newer(rss, document)));
+    }
+
+    public Mono<Document> atom() {
+        long version = feedService.version();
+        Document cached = atom;
+        if (cached != null && cached.getVersion() == version) {
+            return Mono.just(cached);
+        }
+        return builds.execute(new Build("atom", version),
+                () -> Mono.fromCallable(() -> feedDocument(version, this::writeAtom))
+                        .doOnNext(document -> atom = newer(atom, document)));
+    }
+
+    public Mono<Document> sitemap() {
+        long generation = sitemapGeneration.get();
+        Document cached = sitemap;
+        if (cached != null && cached.getVersion() == generation) {
+            return Mono.just(cached);
+        }
+        FieldSelection fields = FieldSelection.parse("id,updatedAt", BlogPostsService.SUMMARY_FIELDS);
+        // findByQueryParam completes empty without published posts, which gives an empty urlset
+        return builds.execute(new Build("sitemap", generation), () -> blogPostsService.findByQueryParam(new HashMap<>(), fields)
+                .take(SITEMAP_MAX_URLS)
+                .collectList()
+                .map(posts -> {
+                    if (posts.size() == SITEMAP_MAX_URLS) {
+                        log.warn("Sitemap truncated at {} posts", SITEMAP_MAX_URLS);
+                    }
+                    log.debug("Rebuilding the sitemap with {} posts", posts.size());
+                    return document(generation, posts, write(writer -> writeSitemap(writer, posts)));
+                })
+                .doOnNext(document -> sitemap = newer(sitemap, document)));
+    }
+
+    // Builds of different versions can overlap; the one finishing last must not put an older document back
+    private static Document newer(Document cached, Document built) {
+        return cached != null && cached.getVersion() > built.getVersion() ? cached : built;
+    }
+
+    private interface XmlBody {
+        void write(XMLStreamWriter writer) throws XMLStreamException;
+    }
+
+    private interface FeedBody {
+        void write(XMLStreamWriter writer, List<BlogPostSummaryDTO> posts, ZonedDateTime updated) throws XMLStreamException;
+    }
+
+    private Document feedDocument(long version, FeedBody body) {
+        List<BlogPostSummaryDTO> posts = feedService.latest(feedService.capacity());
+        ZonedDateTime updated = lastModified(posts);
+        return document(version, posts, write(writer -> body.write(writer, posts, updated)));
+    }
+
+    private Document document(long version, List<BlogPostSummaryDTO> posts, byte[] body) {
+        return new Document(version, body, ConditionalRequests.etag(body), lastModified(posts));
+    }
+
+    private void writeRss(XMLStreamWriter writer, List<BlogPostSummaryDTO> posts, ZonedDateTime updated)
+            throws XMLStreamException {
+        writer.writeStartElement("rss");
+        writer.writeAttribute("version", "2.0");
+        writer.writeStartElement("channel");
+        element(writer, "title", siteTitle);
+        element(writer, "link", siteUrl);
+        element(writer, "description", "Latest posts from " + siteTitle);
+        if (updated != null) {
+            element(writer, "lastBuildDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(updated));
+        }
+        for (BlogPostSummaryDTO post : posts) {
+            writer.writeStartElement("item");
+            element(writer, "title", post.getTitle());
+            element(writer, "link", postUrl(post));
+            writer.writeStartElement("guid");
+            writer.writeAttribute("isPermaLink", "true");
+            writer.writeCharacters(postUrl(post));
+            writer.writeEndElement();
+            element(writer, "description", post.getExcerpt());
+            if (post.getCreatedAt() != null) {
+                element(writer, "pubDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(post.getCreatedAt()));
+            }
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    private void writeAtom(XMLStreamWriter writer, List<BlogPostSummaryDTO> posts, ZonedDateTime updated)
+            throws XMLStreamException {
+        writer.writeStartElement("feed");
+        writer.writeDefaultNamespace(ATOM_NS);
+        element(writer, "id", siteUrl + "/");
+        element(writer, "title", siteTitle);
+        ZonedDateTime feedUpdated = updated != null ? updated : ZonedDateTime.now();
+        element(writer, "updated", rfc3339(feedUpdated));
+        link(writer, siteUrl);
+        for (BlogPostSummaryDTO post : posts) {
+            writer.writeStartElement("entry");
+            element(writer, "id", postUrl(post));
+            element(writer, "title", post.getTitle());
+            ZonedDateTime entryUpdated = lastModified(post);
+            element(writer, "updated", rfc3339(entryUpdated != null ? entryUpdated : feedUpdated));
+            if (post.getCreatedAt() != null) {
+                element(writer, "published", rfc3339(post.getCreatedAt()));
+            }
+            link(writer, postUrl(post));
+            element(writer, "summary", post.getExcerpt());
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    private void writeSitemap(XMLStreamWriter writer, List<BlogPostSummaryDTO> posts) throws XMLStreamException {
+        writer.writeStartElement("urlset");
+        writer.writeDefaultNamespace(SITEMAP_NS);
+        for (BlogPostSummaryDTO post : posts) {
+            writer.writeStartElement("url");
+            element(writer, "loc", postUrl(post));
+            ZonedDateTime lastModified = lastModified(post);
+            if (lastModified != null) {
+                element(writer, "lastmod", rfc3339(lastModified));
+            }
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    private static byte[] write(XmlBody body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try {
+            XMLStreamWriter writer = XML.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            body.write(writer);
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new HttpException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write XML document");
+        }
+        return out.toByteArray();
+    }
+
+    private static void element(XMLStreamWriter writer, String name, String text) throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeCharacters(text != null ? text : "");
+        writer.writeEndElement();
+    }
+
+    private static void link(XMLStreamWriter writer, String href) throws XMLStreamException {
+        writer.writeEmptyElement("link");
+        writer.writeAttribute("href", href);
+    }
+
+    private String postUrl(BlogPostSummaryDTO post) {
+        return siteUrl + "/blogs/" + post.getId();
+    }
+
+    private static String rfc3339(ZonedDateTime time) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(time.withZoneSameInstant(ZoneOffset.UTC));
+    }
+
+    private static ZonedDateTime lastModified(BlogPostSummaryDTO post) {
+        return post.getUpdatedAt() != null ? post.getUpdatedAt() : post.getCreatedAt();
+    }
+
+    private static ZonedDateTime lastModified(List<BlogPostSummaryDTO> posts) {
+        ZonedDateTime latest = null;
+        for (BlogPostSummaryDTO post : posts) {
+            latest = ConditionalRequests.latest(latest, lastModified(post));
+        }
+        return latest;
+    }
+}
@@ -5,6 +5,7 @@ import dev.rickcloudy.restapi.enums.UserStatus;
 import dev.rickcloudy.restapi.exception.HttpException;
 import dev.rickcloudy.restapi.exception.custom.EmailAlreadyExistsException;
 import dev.rickcloudy.restapi.exception.custom.UsernameAlreadyExistsException;
+import dev.rickcloudy.restapi.helper.FieldSelection;
 import dev.rickcloudy.restapi.mapper.UserMapper;
 import dev.rickcloudy.restapi.repository.UserRepository;
 import org.apache.logging.log4j.LogManager;
@@ -23,6 +24,7 @@ import org.springframework.validation.Validator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -30,11 +32,17 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class UserService {
+	// Fields a user listing may be narrowed to with ?fields=; the password column is never selectable
+	public static final Set<String> USER_FIELDS = Set.of(
+			"id", "firstName", "lastName", "email", "username", "status", "updatedAt");
+	private static final List<String> USER_COLUMNS = List.of(
+			"id", "first_name", "last_name", "email", "username", "status", "updated_at");
 	private final Logger log = LogManager.getLogger(UserService.class);
 	private final UserRepository userRepository;
 	private final UserMapper mapper;
 	private final Validator validator;
 	private final PasswordEncoder passwordEncoder;
+	private final AuthorLoader authorLoader;
 
 	public Mono<UserDTO> save(Users user) {
 	// Set up the Errors object
@@ -137,6 +145,7 @@ public class UserService {
                         return Mono.just(r);
                     }))
 				.flatMap(r -> userRepository.update(user))
+				.doOnNext(r -> authorLoader.invalidate(r.getId()))
 				.flatMap(r -> Mono.just(mapper.userToDto(r)));
 	}
 
@@ -145,10 +154,17 @@ public class UserService {
 				.flatMap(r -> {
 					r.setStatus(UserStatus.DELETED);
 					return userRepository.update(r);
-				}).then();
+				})
+				.doOnNext(r -> authorLoader.invalidate(id))
+				.then();
 	}
 	public Flux<UserDTO> findByParams(Map<String, String> params) {
-		return userRepository.findByParams(params)
+		return findByParams(params, FieldSelection.ALL);
+	}
+
+	public Flux<UserDTO> findByParams(Map<String, String> params, FieldSelection fields) {
+		List<String> columns = fields.isAll() ? List.of() : fields.columns(USER_COLUMNS, "id", "updated_at");
+		return userRepository.findByParams(params, columns)
 				.flatMap(r -> Flux.just(mapper.userToDto(r)));
 	}
 }
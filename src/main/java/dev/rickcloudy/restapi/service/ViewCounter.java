@@ -0,0 +1,100 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts blog post views in memory and writes the accumulated deltas back in batches, so reading a post
+ * never waits on a write. Counts pending at a crash are lost; a graceful shutdown flushes them.
+ */
+@Component
+public class ViewCounter {
+    private static final Logger log = LogManager.getLogger(ViewCounter.class);
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final BlogPostsRepository blogPostsRepository;
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public ViewCounter(BlogPostsRepository blogPostsRepository) {
+        this.blogPostsRepository = blogPostsRepository;
+    }
+
+    public void increment(Long blogPostId) {
+        pending.computeIfAbsent(blogPostId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Views counted since the last flush that are not in the database yet.
+     */
+    public long pending(Long blogPostId) {
+        LongAdder adder = pending.get(blogPostId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    // The scheduler obtains this Mono once and re-subscribes it on every run, so the work must be deferred
+    @Scheduled(fixedDelayString = "${rickcloudy.blog.view-flush-interval:PT5S}",
+            initialDelayString = "${rickcloudy.blog.view-flush-interval:PT5S}")
+    public Mono<Void> flush() {
+        return Mono.defer(this::flushPending);
+    }
+
+    private Mono<Void> flushPending() {
+        Map<Long, Long> deltas = new HashMap<>();
+        // Adders stay in the map, so the hot posts do not allocate a new one after every flush.
+        // A view racing with sumThenReset can be missed, which is fine for a view count.
+        pending.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<Map<Long, Long>> batches = new ArrayList<>();
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+            batch.put(delta.getKey(), delta.getValue());
+            if (batch.size() == FLUSH_BATCH_SIZE) {
+                batches.add(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return Flux.fromIterable(batches)
+                .concatMap(counts -> blogPostsRepository.addViewCounts(counts)
+                        .doOnError(e -> {
+                            // Put the counts back so the next flush retries them
+                            log.error("Failed to flush view counts of {} posts", counts.size(), e);
+                            counts.forEach((id, delta) -> pending.computeIfAbsent(id, key -> new LongAdder()).add(delta));
+                        })
+                        .onErrorResume(e -> Mono.empty()))
+                .reduce(0L, Long::sum)
+                .doOnNext(updated -> log.debug("Flushed view counts of {} posts", updated))
+                .then();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush().block(SHUTDOWN_TIMEOUT);
+    }
+}
@@ -0,0 +1,3 @@
+-- Full-text search over blog posts, used by GET /blogs?q=...
+ALTER TABLE blog_posts
+    ADD FULLTEXT INDEX ft_blog_posts_title_content (title, content);
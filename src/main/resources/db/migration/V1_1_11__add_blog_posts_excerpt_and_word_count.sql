@@ -0,0 +1,14 @@
+-- Summary columns so list endpoints never have to read blog_posts.content
+ALTER TABLE blog_posts
+    ADD COLUMN excerpt VARCHAR(300) NULL AFTER content,
+    ADD COLUMN word_count INT NOT NULL DEFAULT 0 AFTER excerpt;
+
+-- Backfill existing rows; new writes are computed by the application. Word count here is
+-- "whitespace runs + 1", which matches the application's whitespace split.
+UPDATE blog_posts
+SET excerpt    = LEFT(REGEXP_REPLACE(TRIM(content), '[[:space:]]+', ' '), 280),
+    word_count = CASE
+                     WHEN TRIM(content) = '' THEN 0
+                     ELSE CHAR_LENGTH(REGEXP_REPLACE(TRIM(content), '[[:space:]]+', ' '))
+                         - CHAR_LENGTH(REPLACE(REGEXP_REPLACE(TRIM(content), '[[:space:]]+', ' '), ' ', '')) + 1
+        END;
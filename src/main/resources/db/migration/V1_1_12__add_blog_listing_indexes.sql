@@ -0,0 +1,7 @@
+-- Listing indexes. InnoDB appends the primary key to secondary indexes, so both blog_posts indexes
+-- also cover the id tie-breaker of ORDER BY created_at DESC, id DESC.
+CREATE INDEX idx_blog_posts_status_created_at ON blog_posts (status, created_at);
+CREATE INDEX idx_blog_posts_author_status_created_at ON blog_posts (author_id, status, created_at);
+
+-- Replaces the index MySQL created implicitly for the blog_post_id foreign key
+CREATE INDEX idx_blog_images_blog_post_id ON blog_images (blog_post_id);
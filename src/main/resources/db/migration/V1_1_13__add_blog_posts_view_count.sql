@@ -0,0 +1,2 @@
+-- Written in batches by the application's view counter, never on the read path
+ALTER TABLE blog_posts ADD COLUMN view_count BIGINT NOT NULL DEFAULT 0 AFTER word_count;
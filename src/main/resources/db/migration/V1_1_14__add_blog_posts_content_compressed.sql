@@ -0,0 +1,4 @@
+-- Opt-in compressed storage: a post has either content or content_compressed (codec marker byte + payload)
+ALTER TABLE blog_posts
+    MODIFY COLUMN content TEXT NULL,
+    ADD COLUMN content_compressed MEDIUMBLOB NULL AFTER content;
@@ -0,0 +1,6 @@
+-- HTML rendered from the Markdown content at write time. Existing posts are rendered on their first
+-- ?format=html request.
+ALTER TABLE blog_posts
+    ADD COLUMN content_html MEDIUMTEXT NULL AFTER view_count,
+    ADD COLUMN table_of_contents TEXT NULL AFTER content_html,
+    ADD COLUMN reading_time_minutes INT NOT NULL DEFAULT 0 AFTER table_of_contents;
@@ -0,0 +1,11 @@
+-- Precomputed related posts, written by the application's background job. The primary key serves
+-- GET /blogs/{id}/related as a single range read in rank order.
+CREATE TABLE blog_related (
+    blog_post_id    BIGINT   NOT NULL,
+    rank_position   TINYINT  NOT NULL,
+    related_post_id BIGINT   NOT NULL,
+    score           FLOAT    NOT NULL,
+    PRIMARY KEY (blog_post_id, rank_position),
+    FOREIGN KEY (blog_post_id) REFERENCES blog_posts (id) ON DELETE CASCADE,
+    FOREIGN KEY (related_post_id) REFERENCES blog_posts (id) ON DELETE CASCADE
+);
@@ -0,0 +1,5 @@
+-- Posts can be queued to go live at publish_at. The index serves loading the publish scheduler at startup.
+ALTER TABLE blog_posts
+    MODIFY COLUMN status ENUM('DRAFT', 'PUBLISHED', 'ARCHIVED', 'DELETED', 'SCHEDULED') NOT NULL DEFAULT 'DRAFT',
+    ADD COLUMN publish_at DATETIME NULL AFTER status,
+    ADD INDEX idx_blog_posts_status_publish_at (status, publish_at);
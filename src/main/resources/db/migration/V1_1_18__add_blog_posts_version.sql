@@ -0,0 +1,3 @@
+-- Row version for optimistic locking: every write bumps it, and edits only apply to the version they were based on.
+ALTER TABLE blog_posts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER publish_at;
@@ -0,0 +1,6 @@
+-- S3 objects of images removed from a post, waiting to be deleted. The key is written in the same transaction
+-- that drops the blog_images row and removed once S3 confirms, so a failed delete is retried rather than lost.
+CREATE TABLE blog_image_deletions (
+    image_key  VARCHAR(255) NOT NULL PRIMARY KEY,
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
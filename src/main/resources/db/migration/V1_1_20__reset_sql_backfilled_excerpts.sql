@@ -0,0 +1,8 @@
+-- V1_1_11 cut the backfilled excerpts at 280 characters, mid-word and without the ellipsis the application
+-- adds, and kept a leading or trailing space where the content started or ended with a line break. Clear
+-- those; ExcerptBackfill recomputes them on startup with BlogPostsSummaryCallback.excerpt().
+UPDATE blog_posts
+SET excerpt    = NULL,
+    updated_at = updated_at
+WHERE CHAR_LENGTH(excerpt) = 280
+   OR excerpt <> TRIM(excerpt);
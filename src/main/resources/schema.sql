@@ -17,12 +17,25 @@ CREATE TABLE IF NOT EXISTS users (
 CREATE TABLE IF NOT EXISTS blog_posts (
                                           id BIGINT AUTO_INCREMENT PRIMARY KEY, -- V1_1_2
                                           title VARCHAR(100) NOT NULL, -- V1_1_2
-    content TEXT NOT NULL, -- V1_1_2
+    content TEXT NULL, -- V1_1_2 (nullable since V1_1_14)
+    content_compressed MEDIUMBLOB NULL, -- V1_1_14
+    excerpt VARCHAR(300) NULL, -- V1_1_11
+    word_count INT NOT NULL DEFAULT 0, -- V1_1_11
+    view_count BIGINT NOT NULL DEFAULT 0, -- V1_1_13
+    content_html MEDIUMTEXT NULL, -- V1_1_15
+    table_of_contents TEXT NULL, -- V1_1_15
+    reading_time_minutes INT NOT NULL DEFAULT 0, -- V1_1_15
     author_id BIGINT NOT NULL, -- V1_1_2
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- V1_1_2
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, -- V1_1_2
-    status ENUM('DRAFT', 'PUBLISHED', 'ARCHIVED', 'DELETED') NOT NULL DEFAULT 'DRAFT', -- V1_1_4 (modified from V1_1_3)
-    FOREIGN KEY (author_id) REFERENCES users(id) -- V1_1_2
+    status ENUM('DRAFT', 'PUBLISHED', 'ARCHIVED', 'DELETED', 'SCHEDULED') NOT NULL DEFAULT 'DRAFT', -- V1_1_4 (modified from V1_1_3, SCHEDULED since V1_1_17)
+    publish_at DATETIME NULL, -- V1_1_17
+    version BIGINT NOT NULL DEFAULT 0, -- V1_1_18
+    FOREIGN KEY (author_id) REFERENCES users(id), -- V1_1_2
+    FULLTEXT INDEX ft_blog_posts_title_content (title, content), -- V1_1_10
+    INDEX idx_blog_posts_status_created_at (status, created_at), -- V1_1_12
+    INDEX idx_blog_posts_author_status_created_at (author_id, status, created_at), -- V1_1_12
+    INDEX idx_blog_posts_status_publish_at (status, publish_at) -- V1_1_17
     );
 
 CREATE TABLE IF NOT EXISTS blog_images (
@@ -36,5 +49,21 @@ CREATE TABLE IF NOT EXISTS blog_images (
     image_key VARCHAR(255) NOT NULL, -- V1_1_9
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- V1_1_2
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, -- V1_1_2
-    FOREIGN KEY (blog_post_id) REFERENCES blog_posts(id) -- V1_1_6 (re-added after being dropped in V1_1_5)
+    FOREIGN KEY (blog_post_id) REFERENCES blog_posts(id), -- V1_1_6 (re-added after being dropped in V1_1_5)
+    INDEX idx_blog_images_blog_post_id (blog_post_id) -- V1_1_12
+    );
+
+CREATE TABLE IF NOT EXISTS blog_related (
+                                            blog_post_id BIGINT NOT NULL, -- V1_1_16
+                                            rank_position TINYINT NOT NULL, -- V1_1_16
+                                            related_post_id BIGINT NOT NULL, -- V1_1_16
+                                            score FLOAT NOT NULL, -- V1_1_16
+    PRIMARY KEY (blog_post_id, rank_position), -- V1_1_16
+    FOREIGN KEY (blog_post_id) REFERENCES blog_posts(id) ON DELETE CASCADE, -- V1_1_16
+    FOREIGN KEY (related_post_id) REFERENCES blog_posts(id) ON DELETE CASCADE -- V1_1_16
+    );
+
+CREATE TABLE IF NOT EXISTS blog_image_deletions (
+                                                    image_key VARCHAR(255) NOT NULL PRIMARY KEY, -- V1_1_19
+                                                    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP -- V1_1_19
     );
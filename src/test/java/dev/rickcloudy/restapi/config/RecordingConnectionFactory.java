@@ -0,0 +1,95 @@
+package dev.rickcloudy.restapi.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.connection.DelegatingConnectionFactory;
+import org.springframework.r2dbc.core.Parameter;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL and the positional binds of every statement created through it, so tests can look at the
+ * queries a repository really sends instead of hand-written copies of them.
+ */
+public class RecordingConnectionFactory extends DelegatingConnectionFactory {
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+    public RecordingConnectionFactory(ConnectionFactory target) {
+        super(target);
+    }
+
+    @Override
+    public Mono<? extends Connection> create() {
+        return super.create().map(this::recording);
+    }
+
+    public List<RecordedStatement> statements() {
+        return List.copyOf(statements);
+    }
+
+    public void clear() {
+        statements.clear();
+    }
+
+    private Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("createStatement")) {
+                        RecordedStatement recorded = new RecordedStatement((String) args[0]);
+                        statements.add(recorded);
+                        return recording((Statement) result, recorded);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement recording(Statement statement, RecordedStatement recorded) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if (args != null && args.length == 2 && args[0] instanceof Integer index) {
+                        if (method.getName().equals("bind")) {
+                            recorded.binds.put(index, args[1]);
+                        } else if (method.getName().equals("bindNull")) {
+                            recorded.binds.put(index, Parameter.empty((Class<?>) args[1]));
+                        }
+                    }
+                    Object result = invoke(statement, method, args);
+                    // Keep the fluent calls on the proxy
+                    return result == statement ? proxy : result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static class RecordedStatement {
+        private final String sql;
+        private final Map<Integer, Object> binds = new TreeMap<>();
+
+        RecordedStatement(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Map<Integer, Object> getBinds() {
+            return binds;
+        }
+    }
+}
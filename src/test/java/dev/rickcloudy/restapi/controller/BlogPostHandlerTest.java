@@ -4,13 +4,17 @@ package dev.rickcloudy.restapi.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.rickcloudy.restapi.config.TestContainerBeanConfiguration;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
 import dev.rickcloudy.restapi.entity.BlogPosts;
 import dev.rickcloudy.restapi.entity.Users;
+import dev.rickcloudy.restapi.enums.BlogStatus;
 import dev.rickcloudy.restapi.enums.UserStatus;
 import dev.rickcloudy.restapi.repository.BlogImagesRepository;
 import dev.rickcloudy.restapi.repository.BlogPostsRepository;
 import dev.rickcloudy.restapi.repository.UserRepository;
+import dev.rickcloudy.restapi.service.BlogSearchIndex;
 import dev.rickcloudy.restapi.service.S3Service;
+import dev.rickcloudy.restapi.utils.JwtUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,18 +24,29 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.BodyInserters;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Import(TestContainerBeanConfiguration.class)
@@ -54,6 +69,12 @@ public class BlogPostHandlerTest {
 
     @Autowired
     S3Service s3Service;
+
+    @Autowired
+    JwtUtils jwtUtils;
+
+    @Autowired
+    BlogSearchIndex blogSearchIndex;
     private final Long userId = 121212414L;
     @BeforeEach
     void setUp() {
@@ -195,4 +216,422 @@ public class BlogPostHandlerTest {
                 .jsonPath("$.message").isEqualTo("User with ID 999 does not exists");
     }
 
+    @Test
+    void findByParams_Given_NdjsonAcceptAndPublishedPosts_Expect_OnePostPerLineNewestFirst() {
+        // Given two published posts and a draft
+        savePost("Older Streamed Post", BlogStatus.PUBLISHED, ZonedDateTime.now().minusMinutes(1));
+        savePost("Newer Streamed Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+        savePost("Streamed Draft", BlogStatus.DRAFT, ZonedDateTime.now());
+
+        // When the listing is requested as NDJSON
+        List<BlogPostSummaryDTO> posts = client.get()
+                .uri("/blogs")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                // Then each published post arrives as its own JSON line
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BlogPostSummaryDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(List.of("Newer Streamed Post", "Older Streamed Post"),
+                posts.stream().map(BlogPostSummaryDTO::getTitle).toList());
+    }
+
+    @Test
+    void findByParams_Given_SseAccept_Expect_EventStream() {
+        savePost("Event Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        List<BlogPostSummaryDTO> posts = client.get()
+                .uri("/blogs")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(BlogPostSummaryDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(1, posts.size());
+        assertEquals("Event Post", posts.get(0).getTitle());
+    }
+
+    @Test
+    void findByParams_Given_NdjsonAcceptAndNoPublishedPosts_Expect_EmptyStream() {
+        // Given only a draft
+        savePost("Unpublished Draft", BlogStatus.DRAFT, ZonedDateTime.now());
+
+        // When the listing is streamed, then it is an empty 200 rather than an error
+        client.get()
+                .uri("/blogs")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void findByParams_Given_NdjsonAcceptWithLimit_Expect_BadRequest() {
+        client.get()
+                .uri(uriBuilder -> uriBuilder.path("/blogs").queryParam("limit", "1").build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("limit and cursor only apply to paged JSON listings, not to streams");
+    }
+
+    @Test
+    void findById_Given_MatchingIfNoneMatch_Expect_NotModified() {
+        // Given a published post and the ETag of its first read
+        Long id = savePost("Cached Post", BlogStatus.PUBLISHED, ZonedDateTime.now()).getId();
+        String etag = client.get()
+                .uri("/blogs/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        // When it is revalidated with that ETag, then the body is not sent again
+        client.get()
+                .uri("/blogs/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void update_Given_ContentHashETagAsIfMatch_Expect_PreconditionFailed() {
+        // Given the ETag of the public read, which hashes the body instead of naming a version
+        BlogPosts blogPost = savePost("Hashed Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+        String etag = client.get()
+                .uri("/blogs/{id}", blogPost.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        // When it is sent back as If-Match, then the edit is refused instead of skipping the version check
+        client.put()
+                .uri("/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(updateBody(blogPost, "Edited Title")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("If-Match does not name a version of this resource");
+        assertEquals("Hashed Post", blogPostsRepository.findById(blogPost.getId()).block().getTitle());
+    }
+
+    @Test
+    void update_Given_NoIfMatchOrVersion_Expect_PreconditionRequired() {
+        BlogPosts blogPost = savePost("Unversioned Edit", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        client.put()
+                .uri("/blogs/{id}", blogPost.getId())
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(updateBody(blogPost, "Edited Title")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_REQUIRED)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Send the version being edited as If-Match or in the blog post");
+    }
+
+    @Test
+    void update_Given_VersionETagFromAdminRead_Expect_UpdatedOnceThenConflict() {
+        // Given the version ETag of the admin read
+        BlogPosts blogPost = savePost("Versioned Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+        String etag = client.get()
+                .uri("/admin/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+        assertEquals("\"" + blogPost.getVersion() + "\"", etag);
+
+        // When it is sent as If-Match, then the edit is saved and the response names the new version
+        String newETag = client.put()
+                .uri("/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(updateBody(blogPost, "Edited Title")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.title").isEqualTo("Edited Title")
+                .returnResult()
+                .getResponseHeaders().getETag();
+        assertNotNull(newETag);
+        assertNotEquals(etag, newETag);
+
+        // And a second edit based on the old version conflicts instead of overwriting the first
+        client.put()
+                .uri("/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(updateBody(blogPost, "Lost Update")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        assertEquals("Edited Title", blogPostsRepository.findById(blogPost.getId()).block().getTitle());
+    }
+
+    @Test
+    void findByIdAdmin_Given_CurrentVersionETag_Expect_NotModified() {
+        BlogPosts blogPost = savePost("Admin Cached Post", BlogStatus.DRAFT, ZonedDateTime.now());
+
+        client.get()
+                .uri("/admin/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + blogPost.getVersion() + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void findByIdAdmin_Given_NoToken_Expect_Unauthorized() {
+        BlogPosts blogPost = savePost("Admin Only Post", BlogStatus.DRAFT, ZonedDateTime.now());
+
+        client.get()
+                .uri("/admin/blogs/{id}", blogPost.getId())
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void findContentById_Given_PublishedPost_Expect_MarkdownAndRevalidation() {
+        BlogPosts blogPost = savePost("Raw Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        String etag = client.get()
+                .uri("/blogs/{id}/content", blogPost.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("text/markdown"))
+                .expectBody(String.class).isEqualTo("Content of Raw Post")
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        client.get()
+                .uri("/blogs/{id}/content", blogPost.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void search_Given_IndexedTerm_Expect_RankedHits() {
+        BlogPosts blogPost = savePost("Searchable Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+        blogSearchIndex.index(blogPost.getId(), blogPost.getTitle(), "Quokkas are small marsupials");
+
+        client.get()
+                .uri(uriBuilder -> uriBuilder.path("/blogs/search").queryParam("q", "quokkas").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].id").isEqualTo(blogPost.getId())
+                .jsonPath("$.data[0].title").isEqualTo("Searchable Post");
+        blogSearchIndex.remove(blogPost.getId());
+    }
+
+    @Test
+    void search_Given_BlankQuery_Expect_BadRequest() {
+        client.get()
+                .uri(uriBuilder -> uriBuilder.path("/blogs/search").queryParam("q", " ").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("q must not be blank");
+    }
+
+    @Test
+    void feed_Given_Limit_Expect_JsonList() {
+        client.get()
+                .uri(uriBuilder -> uriBuilder.path("/blogs/feed").queryParam("limit", "5").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.data").isArray();
+    }
+
+    @Test
+    void related_Given_PublishedPost_Expect_JsonList() {
+        BlogPosts blogPost = savePost("Related Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        client.get()
+                .uri("/blogs/{id}/related", blogPost.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data").isArray();
+    }
+
+    @Test
+    void syndication_Given_FeedsAndSitemap_Expect_XmlWithRevalidation() {
+        client.get().uri("/blogs/rss.xml")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("application/rss+xml"))
+                .expectBody(String.class).value(body -> assertContains(body, "<rss"));
+        client.get().uri("/blogs/atom.xml")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("application/atom+xml"))
+                .expectBody(String.class).value(body -> assertContains(body, "<feed"));
+
+        String etag = client.get().uri("/sitemap.xml")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_XML)
+                .expectBody(String.class).value(body -> assertContains(body, "<urlset"))
+                .returnResult()
+                .getResponseHeaders().getETag();
+        client.get().uri("/sitemap.xml")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void changeStatus_Given_Ids_Expect_ResultPerId() {
+        BlogPosts blogPost = savePost("Bulk Draft", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        client.post()
+                .uri("/admin/blogs/status")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", List.of(blogPost.getId(), 999_999L), "status", "DRAFT"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Updated 1 of 2 blog posts")
+                .jsonPath("$.data[0].id").isEqualTo(blogPost.getId())
+                .jsonPath("$.data[0].outcome").isEqualTo("UPDATED")
+                .jsonPath("$.data[1].outcome").isEqualTo("NOT_FOUND");
+        assertEquals(BlogStatus.DRAFT, blogPostsRepository.findById(blogPost.getId()).block().getStatus());
+    }
+
+    @Test
+    void changeStatus_Given_Scheduled_Expect_BadRequest() {
+        client.post()
+                .uri("/admin/blogs/status")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", List.of(1L), "status", "SCHEDULED"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Posts cannot be scheduled in bulk");
+    }
+
+    @Test
+    void saveAll_Given_NdjsonPosts_Expect_OneResultPerLine() {
+        String body = "{\"title\":\"Imported One\",\"content\":\"First\",\"authorId\":" + userId + "}\n"
+                + "{\"title\":\"\",\"content\":\"No title\",\"authorId\":" + userId + "}\n";
+
+        List<Map> results = client.post()
+                .uri("/blogs/all")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Map.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(2, results.size());
+        assertEquals(true, results.get(0).get("success"));
+        assertEquals(false, results.get(1).get("success"));
+        assertEquals(1L, blogPostsRepository.count().block());
+    }
+
+    @Test
+    void saveAll_Given_NoToken_Expect_Unauthorized() {
+        client.post()
+                .uri("/blogs/all")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{}\n")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void delete_Given_Token_Expect_SoftDeletedAndGoneFromReads() {
+        BlogPosts blogPost = savePost("Doomed Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        client.delete()
+                .uri("/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Blog post deleted");
+
+        assertEquals(BlogStatus.DELETED, blogPostsRepository.findById(blogPost.getId()).block().getStatus());
+        client.get().uri("/blogs/{id}", blogPost.getId()).exchange().expectStatus().isNotFound();
+        client.delete()
+                .uri("/blogs/{id}", blogPost.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearerToken())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void delete_Given_NoToken_Expect_Unauthorized() {
+        BlogPosts blogPost = savePost("Protected Post", BlogStatus.PUBLISHED, ZonedDateTime.now());
+
+        client.delete().uri("/blogs/{id}", blogPost.getId()).exchange().expectStatus().isUnauthorized();
+        assertEquals(BlogStatus.PUBLISHED, blogPostsRepository.findById(blogPost.getId()).block().getStatus());
+    }
+
+    private String bearerToken() {
+        return "Bearer " + jwtUtils.generateAccessToken("rckychydii1da");
+    }
+
+    private static void assertContains(String body, String expected) {
+        assertNotNull(body);
+        assertTrue(body.contains(expected), () -> "Expected " + expected + " in " + body);
+    }
+
+    // The update handler takes the same multipart shape as create: the post as JSON plus its image URLs
+    private MultiValueMap<String, HttpEntity<?>> updateBody(BlogPosts blogPost, String title) {
+        Map<String, Object> json = new HashMap<>();
+        json.put("id", blogPost.getId());
+        json.put("title", title);
+        json.put("content", blogPost.getContent());
+        json.put("authorId", blogPost.getAuthorId());
+        json.put("status", blogPost.getStatus().name());
+        MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+        try {
+            bodyBuilder.part("blogPost", new ObjectMapper().writeValueAsString(json))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        bodyBuilder.part("imageUrl", "[]");
+        return bodyBuilder.build();
+    }
+
+    private BlogPosts savePost(String title, BlogStatus status, ZonedDateTime createdAt) {
+        return blogPostsRepository.save(BlogPosts.builder()
+                .title(title)
+                .content("Content of " + title)
+                .authorId(userId)
+                .status(status)
+                .createdAt(createdAt)
+                .build()).block();
+    }
 }
@@ -548,4 +548,76 @@ class UserHandlerTest {
                 })
                 .returnResult();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findById_Given_MatchingIfNoneMatch_Expect_NotModified() {
+        // Given: an existing user and the ETag of its first read
+        Users user = userRepository.save(Users.builder()
+                .firstName("Cached")
+                .lastName("User")
+                .email("cacheduser@gmail.com")
+                .username("cacheduser")
+                .status(UserStatus.ACTIVE)
+                .password("Password123!")
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+        String etag = client.get()
+                .uri("/users/{id}", user.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        // When: the user is requested again with that ETag
+        client.get()
+                .uri("/users/{id}", user.getId())
+                .header("If-None-Match", etag)
+                .exchange()
+                // Then: the server answers 304 without a body
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void findByParams_Given_FieldsParam_Expect_OnlySelectedFieldsReturned() {
+        // Given: a user in the database
+        userRepository.save(Users.builder()
+                .firstName("Sparse")
+                .lastName("Fields")
+                .email("sparse.fields@example.com")
+                .username("sparsefields")
+                .status(UserStatus.ACTIVE)
+                .password("Password123!")
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+
+        // When: the listing is narrowed to id and username
+        client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/users/")
+                        .queryParam("username", "sparse")
+                        .queryParam("fields", "id,username")
+                        .build())
+                .exchange()
+                // Then: only those fields are serialized
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].username").isEqualTo("sparsefields")
+                .jsonPath("$.data[0].id").exists()
+                .jsonPath("$.data[0].email").doesNotExist()
+                .jsonPath("$.data[0].firstName").doesNotExist();
+    }
+
+    @Test
+    void findByParams_Given_FieldOutsideAllowList_Expect_BadRequest() {
+        client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/users/")
+                        .queryParam("fields", "id,password")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,44 @@
+package dev.rickcloudy.restapi.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedContentTest {
+
+    @Test
+    void of_Given_LongText_Expect_DeflatedAndRoundTripped() throws IOException {
+        // Given a body long enough to be worth compressing
+        String text = "Reactive streams all the way down. ".repeat(100);
+
+        // When it is encoded and read back from the stored bytes
+        CompressedContent stored = CompressedContent.of(text);
+        CompressedContent loaded = CompressedContent.fromBytes(stored.getBytes());
+
+        // Then it is smaller, decodes to the same text, and the payload is plain HTTP deflate
+        assertTrue(loaded.isDeflated());
+        assertTrue(stored.getBytes().length < text.length());
+        assertEquals(text, loaded.text());
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(loaded.payload()))) {
+            assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void of_Given_ShortText_Expect_StoredRaw() {
+        CompressedContent stored = CompressedContent.of("Short post");
+
+        assertFalse(stored.isDeflated());
+        assertEquals("Short post", CompressedContent.fromBytes(stored.getBytes()).text());
+    }
+
+    @Test
+    void fromBytes_Given_UnknownMarker_Expect_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> CompressedContent.fromBytes(new byte[]{9, 1, 2}));
+    }
+}
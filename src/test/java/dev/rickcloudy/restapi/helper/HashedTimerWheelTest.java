@@ -0,0 +1,84 @@
+package dev.rickcloudy.restapi.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimerWheelTest {
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void advance_Given_KeysAtDifferentSeconds_Expect_EachReturnedOnceItsSecondPasses() {
+        // Given two keys a few seconds apart
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, START);
+        wheel.schedule(1L, START.plusSeconds(2));
+        wheel.schedule(2L, START.plusMillis(4500));
+
+        // When the wheel moves second by second
+        // Then each key comes out at its own second, and only once
+        assertTrue(wheel.advance(START.plusSeconds(1)).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START.plusSeconds(2)));
+        assertTrue(wheel.advance(START.plusSeconds(4)).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(START.plusSeconds(5)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_Given_KeySeveralRevolutionsAhead_Expect_SkippedUntilItsOwnTick() {
+        // Given a key 20 ticks ahead on an 8 slot wheel
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, START);
+        wheel.schedule(1L, START.plusSeconds(20));
+
+        // When the wheel passes its slot twice first
+        for (int second = 1; second < 20; second++) {
+            assertTrue(wheel.advance(START.plusSeconds(second)).isEmpty());
+        }
+
+        // Then it fires on its tick
+        assertEquals(List.of(1L), wheel.advance(START.plusSeconds(20)));
+    }
+
+    @Test
+    void advance_Given_LongPause_Expect_EverythingOverdueReturned() {
+        // Given keys spread over more than one revolution
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, START);
+        wheel.schedule(1L, START.plusSeconds(3));
+        wheel.schedule(2L, START.plusSeconds(30));
+        wheel.schedule(3L, START.plusSeconds(100));
+
+        // When the wheel jumps far ahead in one go
+        List<Long> due = wheel.advance(START.plusSeconds(50));
+
+        // Then every overdue key comes out and later ones stay
+        assertEquals(2, due.size());
+        assertTrue(due.containsAll(List.of(1L, 2L)));
+        assertTrue(wheel.contains(3L));
+    }
+
+    @Test
+    void schedule_Given_RescheduledOrCancelledKeys_Expect_OnlyLatestScheduleFires() {
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, START);
+        wheel.schedule(1L, START.plusSeconds(2));
+        wheel.schedule(1L, START.plusSeconds(6));
+        wheel.schedule(2L, START.plusSeconds(2));
+        assertTrue(wheel.cancel(2L));
+
+        assertTrue(wheel.advance(START.plusSeconds(5)).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(START.plusSeconds(6)));
+    }
+
+    @Test
+    void schedule_Given_PastTime_Expect_FiresOnNextAdvance() {
+        HashedTimerWheel<Long> wheel = new HashedTimerWheel<>(Duration.ofSeconds(1), 8, START);
+        wheel.advance(START.plusSeconds(10));
+
+        wheel.schedule(1L, START);
+
+        assertEquals(List.of(1L), wheel.advance(START.plusSeconds(11)));
+    }
+}
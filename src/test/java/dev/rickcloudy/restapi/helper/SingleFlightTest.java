@@ -0,0 +1,56 @@
+package dev.rickcloudy.restapi.helper;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_Given_ConcurrentCallsForSameKey_Expect_OneLoadSharedByAll() {
+        // Given a load that stays in flight until the sink emits
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<String> sink = Sinks.one();
+
+        Mono<String> first = singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            return sink.asMono();
+        });
+        Mono<String> second = singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            return Mono.just("unexpected");
+        });
+
+        // When both subscribe before the load completes
+        StepVerifier firstVerifier = StepVerifier.create(first).expectNext("post").expectComplete().verifyLater();
+        StepVerifier secondVerifier = StepVerifier.create(second).expectNext("post").expectComplete().verifyLater();
+        sink.tryEmitValue("post");
+
+        // Then both get the one result, and the flight is cleaned up
+        firstVerifier.verify();
+        secondVerifier.verify();
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.coalescedCount());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_Given_CompletedFlight_Expect_NextCallLoadsAgain() {
+        SingleFlight<Long, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        StepVerifier.create(singleFlight.execute(1L, () -> Mono.fromCallable(loads::incrementAndGet)))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(singleFlight.execute(1L, () -> Mono.fromCallable(loads::incrementAndGet)))
+                .expectNext(2)
+                .verifyComplete();
+        assertEquals(0, singleFlight.coalescedCount());
+    }
+}
@@ -367,6 +367,42 @@ class BlogImagesRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void findByBlogPostIds_given_MultipleBlogPostIds_when_FindByBlogPostIds_then_ReturnImagesOfAllPosts() {
+        // Given a second blog post, each post having its own images
+        BlogPosts otherBlogPost = blogPostsRepository.save(BlogPosts.builder()
+                .title("Other Blog Post Title")
+                .content("Other Blog Post Content")
+                .authorId(userId)
+                .status(BlogStatus.DRAFT)
+                .createdAt(ZonedDateTime.now())
+                .updatedAt(ZonedDateTime.now())
+                .build()).block();
+        blogImagesRepository.save(createNewBlogImage()).block();
+        blogImagesRepository.save(createNewBlogImage()).block();
+        BlogImages otherImage = createNewBlogImage();
+        otherImage.setBlogPostId(otherBlogPost.getId());
+        blogImagesRepository.save(otherImage).block();
+
+        // When
+        Flux<BlogImages> result = blogImagesRepository.findByBlogPostIds(Set.of(blogPostId, otherBlogPost.getId()));
+
+        // Then
+        StepVerifier.create(result.collect(Collectors.groupingBy(BlogImages::getBlogPostId, Collectors.counting())))
+                .assertNext(countByPost -> {
+                    assertEquals(2L, countByPost.get(blogPostId));
+                    assertEquals(1L, countByPost.get(otherBlogPost.getId()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findByBlogPostIds_given_EmptyIds_when_FindByBlogPostIds_then_ReturnEmpty() {
+        StepVerifier.create(blogImagesRepository.findByBlogPostIds(Set.of()))
+                .expectNextCount(0)
+                .verifyComplete();
+    }
+
     @Test
     void findAllByImageKeys_givenExistingImageKeys_whenFindAllByImageKeys_thenReturnMatchingImages() {
         Long blogPostId = this.blogPostId; // replace with a valid blogPostId
@@ -0,0 +1,51 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BlogPostCacheTest {
+
+    @Test
+    void put_Given_InvalidationDuringLoad_Expect_StaleLoadNotCached() {
+        // Given a load that took the generation and read version 1 of the post
+        BlogPostCache cache = new BlogPostCache(new RickCloudyProperties());
+        long generation = cache.generation(1L);
+        BlogPostsDTO loaded = BlogPostsDTO.builder().id(1L).title("Before the edit").version(1L).build();
+
+        // When an edit commits and invalidates the post before the load puts its result
+        cache.invalidate(1L);
+        cache.put(loaded, generation);
+
+        // Then the stale copy is not cached
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void put_Given_NoInvalidationDuringLoad_Expect_Cached() {
+        BlogPostCache cache = new BlogPostCache(new RickCloudyProperties());
+        long generation = cache.generation(1L);
+        BlogPostsDTO loaded = BlogPostsDTO.builder().id(1L).version(1L).build();
+
+        cache.put(loaded, generation);
+
+        assertSame(loaded, cache.get(1L));
+    }
+
+    @Test
+    void put_Given_OlderVersionThanCached_Expect_NewerKept() {
+        // Given version 2 already cached
+        BlogPostCache cache = new BlogPostCache(new RickCloudyProperties());
+        BlogPostsDTO newer = BlogPostsDTO.builder().id(1L).version(2L).build();
+        cache.put(newer, cache.generation(1L));
+
+        // When a slower load of version 1 finishes
+        cache.put(BlogPostsDTO.builder().id(1L).version(1L).build(), cache.generation(1L));
+
+        // Then version 2 stays
+        assertSame(newer, cache.get(1L));
+    }
+}
@@ -1,11 +1,20 @@
 package dev.rickcloudy.restapi.service;
 
+import dev.rickcloudy.restapi.config.RickCloudyProperties;
 import dev.rickcloudy.restapi.config.TestContainerBeanConfiguration;
+import dev.rickcloudy.restapi.dto.BlogImportResult;
+import dev.rickcloudy.restapi.dto.BlogPostSummaryDTO;
 import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.BlogStatusChangeResult;
+import dev.rickcloudy.restapi.dto.CursorPage;
+import dev.rickcloudy.restapi.dto.PageCursor;
+import dev.rickcloudy.restapi.dto.ResponseDTO;
+import dev.rickcloudy.restapi.dto.SerializedBlogPost;
 import dev.rickcloudy.restapi.entity.BlogImages;
 import dev.rickcloudy.restapi.entity.BlogPosts;
 import dev.rickcloudy.restapi.enums.BlogStatus;
 import dev.rickcloudy.restapi.enums.ImageType;
+import dev.rickcloudy.restapi.enums.SearchMode;
 import dev.rickcloudy.restapi.enums.UserStatus;
 import dev.rickcloudy.restapi.entity.Users;
 import dev.rickcloudy.restapi.exception.custom.BlogPostNotFoundException;
@@ -31,13 +40,16 @@ import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -64,6 +76,18 @@ class BlogPostsServiceTest {
     BlogImagesRepository imagesRepository;
     @Autowired
     S3Service s3Service;
+    @Autowired
+    FeedService feedService;
+    @Autowired
+    ViewCounter viewCounter;
+    @Autowired
+    SyndicationService syndicationService;
+    @Autowired
+    ImageCleanupQueue imageCleanupQueue;
+    @Autowired
+    RickCloudyProperties properties;
+    @Autowired
+    DatabaseClient databaseClient;
     private final Long userId = 121212414L;
     @BeforeEach
     void setUp() {
@@ -199,6 +223,7 @@ class BlogPostsServiceTest {
                 .title("Updated Title")
                 .content("Updated Content")
                 .authorId(userId)
+                .version(savedBlogPost.getVersion())
                 .build();
 
         // Save an existing image in the repository
@@ -247,6 +272,40 @@ class BlogPostsServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void updateBlogPost_Given_ImageRemoved_Expect_RowDeletedAndKeyQueuedForS3() {
+        // Given a post with an image
+        BlogPosts savedBlogPost = blogPostsRepository.save(BlogPosts.builder()
+                .title("Post With Image")
+                .content("Content")
+                .authorId(userId)
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+        imagesRepository.save(BlogImages.builder()
+                .imageKey("removed-image-key")
+                .imageUrl("https://example.com/removed-image-key")
+                .blogPostId(savedBlogPost.getId())
+                .build()).block();
+
+        // When an edit no longer lists the image
+        BlogPosts edit = BlogPosts.builder()
+                .id(savedBlogPost.getId())
+                .title("Post Without Image")
+                .content("Content")
+                .authorId(userId)
+                .version(savedBlogPost.getVersion())
+                .build();
+        blogPostsService.updateBlogPost(savedBlogPost.getId(), edit, Flux.empty()).block();
+
+        // Then its row is gone and its S3 key waits in the table until S3 confirms the delete
+        StepVerifier.create(imagesRepository.findByBlogPostId(savedBlogPost.getId()))
+                .verifyComplete();
+        StepVerifier.create(imagesRepository.findQueuedDeletions(1000).filter("removed-image-key"::equals))
+                .expectNext("removed-image-key")
+                .verifyComplete();
+        imagesRepository.removeQueuedDeletion("removed-image-key").block();
+    }
+
     @Test
     void updateBlogPost_Given_MismatchedIds_When_UpdateBlogPost_Expect_Exception() {
         // save a BlogPosts object to the database
@@ -305,6 +364,74 @@ class BlogPostsServiceTest {
                 .verify();
     }
 
+    @Test
+    void updateBlogPost_Given_StaleVersion_When_UpdateBlogPost_Expect_ConflictAndFirstEditKept() {
+        // Given a post two editors opened at version 0, and the first one's edit already saved
+        BlogPosts savedBlog = blogPostsRepository.save(BlogPosts.builder()
+                .title("Nama Nama Kucing")
+                .content("Ini adalah nama nama kucing yang ada di kebun binatang")
+                .authorId(userId)
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+        BlogPosts firstEdit = BlogPosts.builder()
+                .id(savedBlog.getId())
+                .title("First Edit")
+                .content("First Content")
+                .authorId(userId)
+                .version(0L)
+                .build();
+        BlogPostsDTO saved = blogPostsService.updateBlogPost(savedBlog.getId(), firstEdit, Flux.empty()).block();
+        assertEquals(1L, saved.getVersion());
+
+        // When the second editor saves on top of version 0
+        BlogPosts secondEdit = BlogPosts.builder()
+                .id(savedBlog.getId())
+                .title("Second Edit")
+                .content("Second Content")
+                .authorId(userId)
+                .version(0L)
+                .build();
+        Mono<BlogPostsDTO> result = blogPostsService.updateBlogPost(savedBlog.getId(), secondEdit, Flux.empty());
+
+        // Then it is rejected with 409 and the first edit stays
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof HttpException &&
+                        ((HttpException) throwable).getHttpStatus() == HttpStatus.CONFLICT)
+                .verify();
+        StepVerifier.create(blogPostsRepository.findById(savedBlog.getId()))
+                .expectNextMatches(blog -> blog.getTitle().equals("First Edit") && blog.getVersion() == 1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateBlogPost_Given_NoVersion_When_UpdateBlogPost_Expect_PreconditionRequired() {
+        // Given an edit that does not say which version it is based on
+        BlogPosts savedBlog = blogPostsRepository.save(BlogPosts.builder()
+                .title("Nama Nama Burung")
+                .content("Ini adalah nama nama burung yang ada di kebun binatang")
+                .authorId(userId)
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+        BlogPosts edit = BlogPosts.builder()
+                .id(savedBlog.getId())
+                .title("Unversioned Edit")
+                .content("Unversioned Content")
+                .authorId(userId)
+                .build();
+
+        // When updateBlogPost is called
+        Mono<BlogPostsDTO> result = blogPostsService.updateBlogPost(savedBlog.getId(), edit, Flux.empty());
+
+        // Then it is rejected with 428 and the post is untouched
+        StepVerifier.create(result)
+                .expectErrorMatches(throwable -> throwable instanceof HttpException &&
+                        ((HttpException) throwable).getHttpStatus() == HttpStatus.PRECONDITION_REQUIRED)
+                .verify();
+        StepVerifier.create(blogPostsRepository.findById(savedBlog.getId()))
+                .expectNextMatches(blog -> blog.getTitle().equals("Nama Nama Burung"))
+                .verifyComplete();
+    }
+
     @Test
     void updateBlogPost_Given_NonExistingBlogPost_When_UpdateBlogPost_Expect_Exception() {
         // save a BlogPosts object to the database
@@ -407,6 +534,68 @@ class BlogPostsServiceTest {
                 .verify();
     }
 
+    @Test
+    void findPageByQueryParam_Given_MorePostsThanLimit_Expect_PagesFollowingCursor() {
+        // Given three published posts, created in the same second so the id breaks the tie
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(blogPostsRepository.save(BlogPosts.builder()
+                    .title("Paged Title " + i)
+                    .content("Paged Content " + i)
+                    .authorId(userId)
+                    .status(BlogStatus.PUBLISHED)
+                    .createdAt(ZonedDateTime.now())
+                    .build()).block().getId());
+        }
+
+        // When the first page is requested
+        CursorPage<BlogPostSummaryDTO> firstPage = blogPostsService.findPageByQueryParam(new HashMap<>(), null, 2).block();
+
+        // Then it holds the two newest posts and a cursor to the rest
+        assertNotNull(firstPage);
+        assertEquals(List.of(ids.get(2), ids.get(1)), firstPage.getItems().stream().map(BlogPostSummaryDTO::getId).toList());
+        assertNotNull(firstPage.getNextCursor());
+
+        // And the second page holds the remaining post and no cursor
+        StepVerifier.create(blogPostsService.findPageByQueryParam(new HashMap<>(), PageCursor.decode(firstPage.getNextCursor()), 2))
+                .assertNext(page -> {
+                    assertEquals(List.of(ids.get(0)), page.getItems().stream().map(BlogPostSummaryDTO::getId).toList());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPageByQueryParam_Given_PostsWithoutCreatedAt_Expect_PagingContinuesThroughThem() {
+        // Given one dated post and two whose created_at is NULL, which sort last
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(blogPostsRepository.save(BlogPosts.builder()
+                    .title("Undated Title " + i)
+                    .content("Undated Content " + i)
+                    .authorId(userId)
+                    .status(BlogStatus.PUBLISHED)
+                    .createdAt(ZonedDateTime.now())
+                    .build()).block().getId());
+        }
+        databaseClient.sql("UPDATE blog_posts SET created_at = NULL WHERE id IN (:ids)")
+                .bind("ids", ids.subList(0, 2))
+                .fetch().rowsUpdated().block();
+
+        // When the listing is paged one post at a time
+        List<Long> seen = new ArrayList<>();
+        PageCursor cursor = null;
+        do {
+            CursorPage<BlogPostSummaryDTO> page = blogPostsService.findPageByQueryParam(new HashMap<>(), cursor, 1).block();
+            assertNotNull(page);
+            page.getItems().forEach(post -> seen.add(post.getId()));
+            cursor = PageCursor.decode(page.getNextCursor());
+        } while (cursor != null && seen.size() <= ids.size());
+
+        // Then the dated post comes first and the undated ones follow by id instead of ending the listing
+        assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0)), seen);
+    }
+
     static class MockFilePart implements FilePart {
 
         private final String filename;
@@ -442,4 +631,353 @@ class BlogPostsServiceTest {
             return contentFlux;
         }
     }
+
+    @Test
+    void getSerializedBlogPostById_Given_PublishedPost_Expect_CachedJsonEnvelope() {
+        // Given a published post
+        Long id = blogPostsRepository.save(BlogPosts.builder()
+                .title("Serialized Title")
+                .content("Serialized Content")
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now())
+                .build()).block().getId();
+
+        // When it is fetched twice
+        SerializedBlogPost first = blogPostsService.getSerializedBlogPostById(id).block();
+        SerializedBlogPost second = blogPostsService.getSerializedBlogPostById(id).block();
+
+        // Then the body is the success envelope and the second call is served from the cache
+        assertNotNull(first);
+        String json = new String(first.getJson(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"Serialized Title\""));
+        assertTrue(json.contains("\"Blog post found\""));
+        assertSame(first, second);
+    }
+
+    @Test
+    void findPageByQueryParam_Given_PublishedPost_Expect_SummaryWithExcerptAndWordCount() {
+        // Given a published post whose content is longer than an excerpt
+        String content = "word ".repeat(100).trim();
+        blogPostsRepository.save(BlogPosts.builder()
+                .title("Summary Title")
+                .content(content)
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+
+        // When the listing is requested
+        // Then the summary carries the stored excerpt and word count
+        StepVerifier.create(blogPostsService.findPageByQueryParam(new HashMap<>(), null, 10))
+                .assertNext(page -> {
+                    BlogPostSummaryDTO summary = page.getItems().get(0);
+                    assertEquals("Summary Title", summary.getTitle());
+                    assertEquals(100, summary.getWordCount());
+                    assertTrue(summary.getExcerpt().length() <= 280);
+                    assertTrue(summary.getExcerpt().endsWith("…"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void createAndDeleteBlogPost_Given_PublishedPost_Expect_FeedPatched() {
+        // Given a newly created published post
+        BlogPostsDTO created = blogPostsService.createBlogPost(BlogPosts.builder()
+                .title("Feed Title")
+                .content("Feed Content")
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .build(), Flux.empty()).block();
+
+        // Then it is stamped on creation and heads the in-memory feed
+        assertNotNull(created);
+        assertNotNull(created.getCreatedAt());
+        assertEquals(created.getId(), feedService.latest(1).get(0).getId());
+
+        // And once deleted it is gone from the feed
+        blogPostsService.deleteBlogPost(created.getId()).block();
+        assertTrue(feedService.latest(50).stream().noneMatch(summary -> summary.getId().equals(created.getId())));
+    }
+
+    @Test
+    void withAuthors_Given_PostsBySameAuthor_Expect_AuthorSummaryEmbedded() {
+        // Given two published posts by the same author
+        for (int i = 0; i < 2; i++) {
+            blogPostsRepository.save(BlogPosts.builder()
+                    .title("Author Title " + i)
+                    .content("Author Content")
+                    .authorId(userId)
+                    .status(BlogStatus.PUBLISHED)
+                    .createdAt(ZonedDateTime.now())
+                    .build()).block();
+        }
+
+        // When the listing is loaded with authors
+        // Then every post carries the author summary
+        StepVerifier.create(blogPostsService.withAuthors(blogPostsService.findByQueryParam(new HashMap<>())))
+                .expectNextMatches(summary -> summary.getAuthor() != null && "rckychydii1da".equals(summary.getAuthor().getUsername()))
+                .expectNextMatches(summary -> summary.getAuthor() != null && userId.equals(summary.getAuthor().getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void flush_Given_CountedViews_Expect_ViewCountWrittenInOneBatch() {
+        // Given a published post viewed three times
+        Long id = blogPostsRepository.save(BlogPosts.builder()
+                .title("Viewed Title")
+                .content("Viewed Content")
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now())
+                .build()).block().getId();
+        viewCounter.increment(id);
+        viewCounter.increment(id);
+        viewCounter.increment(id);
+
+        // When the counter is flushed
+        viewCounter.flush().block();
+
+        // Then the delta is in the column and nothing is pending
+        assertEquals(0L, viewCounter.pending(id));
+        StepVerifier.create(blogPostsRepository.findById(id))
+                .assertNext(post -> assertEquals(3L, post.getViewCount()))
+                .verifyComplete();
+    }
+
+    @Test
+    void flush_Given_CountedViews_Expect_UpdatedAtUnchanged() {
+        // Given a post last edited a day ago and viewed since
+        Long id = blogPostsRepository.save(BlogPosts.builder()
+                .title("Viewed Title")
+                .content("Viewed Content")
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now().minusDays(1))
+                .updatedAt(ZonedDateTime.now().minusDays(1))
+                .build()).block().getId();
+        ZonedDateTime lastEdited = blogPostsRepository.findById(id).block().getUpdatedAt();
+        viewCounter.increment(id);
+
+        // When the counter is flushed
+        viewCounter.flush().block();
+
+        // Then the count moved but the post does not look edited
+        StepVerifier.create(blogPostsRepository.findById(id))
+                .assertNext(post -> {
+                    assertEquals(1L, post.getViewCount());
+                    assertEquals(lastEdited.toInstant(), post.getUpdatedAt().toInstant());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void searchBlogPosts_Given_CompressedPostMatchingByBody_Expect_FoundInNaturalModeOnly() {
+        // Given a published post stored compressed, so MySQL cannot see its body
+        properties.getBlog().setCompressContent(true);
+        BlogPostsDTO compressed;
+        try {
+            compressed = blogPostsService.createBlogPost(BlogPosts.builder()
+                    .title("Trip report")
+                    .content("We watched giraffes by the river")
+                    .authorId(userId)
+                    .status(BlogStatus.PUBLISHED)
+                    .build(), Flux.empty()).block();
+        } finally {
+            properties.getBlog().setCompressContent(false);
+        }
+        assertNotNull(compressed);
+
+        // When searching for a word only its body contains
+        // Then natural language search finds it through the in-memory index, boolean search cannot
+        StepVerifier.create(blogPostsService.searchBlogPosts("giraffes", SearchMode.NATURAL, 10))
+                .assertNext(summary -> assertEquals(compressed.getId(), summary.getId()))
+                .verifyComplete();
+        StepVerifier.create(blogPostsService.searchBlogPosts("giraffes", SearchMode.BOOLEAN, 10))
+                .verifyComplete();
+    }
+
+    @Test
+    void rssAndSitemap_Given_PublishedPost_Expect_CachedUntilNextChange() {
+        // Given a published post
+        BlogPostsDTO first = blogPostsService.createBlogPost(BlogPosts.builder()
+                .title("Syndicated Title")
+                .content("Syndicated Content")
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now())
+                .build(), Flux.empty()).block();
+        assertNotNull(first);
+
+        // When the feed and sitemap are requested twice
+        SyndicationService.Document rss = syndicationService.rss().block();
+        SyndicationService.Document sitemap = syndicationService.sitemap().block();
+
+        // Then they list the post and the second request is served from the cached bytes
+        assertNotNull(rss);
+        assertNotNull(sitemap);
+        assertTrue(new String(rss.getBody(), StandardCharsets.UTF_8).contains("<title>Syndicated Title</title>"));
+        assertTrue(new String(sitemap.getBody(), StandardCharsets.UTF_8).contains("/blogs/" + first.getId() + "</loc>"));
+        assertSame(rss, syndicationService.rss().block());
+        assertSame(sitemap, syndicationService.sitemap().block());
+
+        // And a committed change rebuilds both
+        blogPostsService.deleteBlogPost(first.getId()).block();
+        assertNotSame(rss, syndicationService.rss().block());
+        assertFalse(new String(syndicationService.sitemap().block().getBody(), StandardCharsets.UTF_8)
+                .contains("/blogs/" + first.getId() + "</loc>"));
+    }
+
+    @Test
+    void sitemap_Given_NoPublishedPosts_Expect_EmptyUrlset() {
+        // Given only a draft
+        blogPostsService.createBlogPost(BlogPosts.builder()
+                .title("Unlisted Draft")
+                .content("Draft Content")
+                .authorId(userId)
+                .status(BlogStatus.DRAFT)
+                .build(), Flux.empty()).block();
+
+        // When the sitemap is built, then it is a valid document without urls
+        SyndicationService.Document sitemap = syndicationService.sitemap().block();
+        assertNotNull(sitemap);
+        String body = new String(sitemap.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("<urlset"));
+        assertFalse(body.contains("<url>"));
+    }
+
+    @Test
+    void changeStatus_Given_MixedIds_Expect_PerIdOutcomesAndFeedUpdated() {
+        // Given one published post, one already archived and an id that does not exist
+        BlogPostsDTO published = blogPostsService.createBlogPost(BlogPosts.builder()
+                .title("Archived Soon")
+                .content("Archived Content")
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now())
+                .build(), Flux.empty()).block();
+        Long archived = blogPostsRepository.save(BlogPosts.builder()
+                .title("Already Archived")
+                .content("Archived Content")
+                .authorId(userId)
+                .status(BlogStatus.ARCHIVED)
+                .createdAt(ZonedDateTime.now())
+                .build()).block().getId();
+        Long missing = archived + 1000;
+        assertTrue(feedService.latest(10).stream().anyMatch(post -> post.getId().equals(published.getId())));
+
+        // When all three are archived in one call
+        Flux<BlogStatusChangeResult> results = blogPostsService.changeStatus(
+                List.of(published.getId(), archived, missing), BlogStatus.ARCHIVED);
+
+        // Then each id reports its own outcome, in request order
+        StepVerifier.create(results)
+                .expectNext(new BlogStatusChangeResult(published.getId(), BlogStatusChangeResult.Outcome.UPDATED, BlogStatus.PUBLISHED))
+                .expectNext(new BlogStatusChangeResult(archived, BlogStatusChangeResult.Outcome.UNCHANGED, BlogStatus.ARCHIVED))
+                .expectNext(new BlogStatusChangeResult(missing, BlogStatusChangeResult.Outcome.NOT_FOUND, null))
+                .verifyComplete();
+
+        // And the archived post is gone from the feed and no longer served
+        assertTrue(feedService.latest(10).stream().noneMatch(post -> post.getId().equals(published.getId())));
+        StepVerifier.create(blogPostsRepository.findById(published.getId()))
+                .assertNext(post -> assertEquals(BlogStatus.ARCHIVED, post.getStatus()))
+                .verifyComplete();
+    }
+
+    @Test
+    void changeStatus_Given_PostsDeletedInBulk_Expect_ImagesQueuedForCleanup() {
+        // Given two drafts with an image each
+        List<Long> ids = new ArrayList<>();
+        for (String title : List.of("Bulk Deleted One", "Bulk Deleted Two")) {
+            Long id = blogPostsRepository.save(BlogPosts.builder()
+                    .title(title)
+                    .content("Draft Content")
+                    .authorId(userId)
+                    .status(BlogStatus.DRAFT)
+                    .createdAt(ZonedDateTime.now())
+                    .build()).block().getId();
+            imagesRepository.save(BlogImages.builder()
+                    .blogPostId(id)
+                    .imageKey("bulk-image-" + id)
+                    .imageUrl("https://example.com/bulk-image-" + id)
+                    .build()).block();
+            ids.add(id);
+        }
+        int queued = imageCleanupQueue.size();
+
+        // When both are deleted in one call
+        blogPostsService.changeStatus(ids, BlogStatus.DELETED).blockLast();
+
+        // Then their images wait for the background cleanup, as after a single delete
+        assertEquals(queued + 2, imageCleanupQueue.size());
+        StepVerifier.create(imagesRepository.findByDeletedBlogPostIds(ids))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void importBlogPosts_Given_ValidAndInvalidRecords_Expect_ValidOnesInsertedAndOneResultPerRecord() {
+        // Given a stream with two valid posts between a post without title and one by an unknown author
+        Flux<BlogPosts> records = Flux.just(
+                BlogPosts.builder().title("Imported One").content("First imported body").authorId(userId)
+                        .status(BlogStatus.PUBLISHED).build(),
+                BlogPosts.builder().content("No title").authorId(userId).build(),
+                BlogPosts.builder().title("Unknown Author").content("Orphan body").authorId(userId + 1).build(),
+                BlogPosts.builder().title("Imported Two").content("Second imported body").authorId(userId).build());
+
+        // When the stream is imported
+        List<ResponseDTO<BlogImportResult>> results = blogPostsService.importBlogPosts(records).collectList().block();
+
+        // Then every record has a result in input order, and only the valid ones were stored
+        assertNotNull(results);
+        assertEquals(List.of(0L, 1L, 2L, 3L), results.stream().map(result -> result.getData().getIndex()).toList());
+        assertEquals(List.of(true, false, false, true), results.stream().map(ResponseDTO::isSuccess).toList());
+        StepVerifier.create(blogPostsRepository.findById(results.get(0).getData().getId()))
+                .assertNext(post -> {
+                    assertEquals("Imported One", post.getTitle());
+                    assertEquals(BlogStatus.PUBLISHED, post.getStatus());
+                    assertNotNull(post.getExcerpt());
+                    assertNotNull(post.getContentHtml());
+                })
+                .verifyComplete();
+        StepVerifier.create(blogPostsRepository.findById(results.get(3).getData().getId()))
+                .assertNext(post -> assertEquals(BlogStatus.DRAFT, post.getStatus()))
+                .verifyComplete();
+        StepVerifier.create(blogPostsRepository.count()).expectNext(2L).verifyComplete();
+    }
+
+    @Test
+    void deleteBlogPost_Given_DeletedTwice_Expect_ImagesQueuedOnceAndSecondDeleteNotFound() {
+        // Given a draft post with an image
+        Long id = blogPostsRepository.save(BlogPosts.builder()
+                .title("Draft With Image")
+                .content("Draft Content")
+                .authorId(userId)
+                .status(BlogStatus.DRAFT)
+                .createdAt(ZonedDateTime.now())
+                .build()).block().getId();
+        imagesRepository.save(BlogImages.builder()
+                .blogPostId(id)
+                .imageKey("draft-image-key")
+                .imageUrl("https://example.com/draft-image-key")
+                .build()).block();
+        int queued = imageCleanupQueue.size();
+
+        // When it is deleted
+        blogPostsService.deleteBlogPost(id).block();
+
+        // Then the row is marked deleted and its images wait for the background cleanup
+        StepVerifier.create(blogPostsRepository.findById(id))
+                .assertNext(post -> assertEquals(BlogStatus.DELETED, post.getStatus()))
+                .verifyComplete();
+        assertEquals(queued + 1, imageCleanupQueue.size());
+        StepVerifier.create(imagesRepository.findByDeletedBlogPostIds(List.of(id)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // And deleting it again matches no row
+        StepVerifier.create(blogPostsService.deleteBlogPost(id))
+                .expectError(BlogPostNotFoundException.class)
+                .verify();
+    }
 }
@@ -0,0 +1,89 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.dto.BlogPostsDTO;
+import dev.rickcloudy.restapi.dto.SearchHit;
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BlogSearchIndexTest {
+
+    private BlogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // The repository is only used for the startup build, which these tests do not trigger
+        index = new BlogSearchIndex(null);
+        index.index(1L, "Reactive Spring", "Building reactive services with WebFlux and R2DBC");
+        index.index(2L, "Gardening", "Tomatoes need sun; reactive soil is a myth");
+        index.index(3L, "Cooking", "Slow roasted tomatoes");
+    }
+
+    @Test
+    void search_Given_TermInTitleAndContent_Expect_StrongerMatchFirst() {
+        // When searching for a term in the title of one post and the content of another
+        List<SearchHit> hits = index.search("reactive", 10);
+
+        // Then both match and the title match ranks first
+        assertEquals(List.of(1L, 2L), hits.stream().map(SearchHit::getId).toList());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void search_Given_ReplacedAndRemovedPosts_Expect_OnlyCurrentVersionsMatch() {
+        // Given post 2 rewritten without the term and post 3 removed
+        index.index(2L, "Gardening", "Tomatoes need sun");
+        index.remove(3L);
+
+        // Then neither the old text nor the removed post is found
+        assertEquals(List.of(1L), index.search("reactive", 10).stream().map(SearchHit::getId).toList());
+        assertEquals(List.of(2L), index.search("tomatoes", 10).stream().map(SearchHit::getId).toList());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void search_Given_UnknownOrStopWordQuery_Expect_NoHits() {
+        assertTrue(index.search("kubernetes", 10).isEmpty());
+        assertTrue(index.search("the and", 10).isEmpty());
+    }
+
+    @Test
+    void build_Given_PostsChangedWhileLoading_Expect_LoadedRowsDoNotReplaceNewerOnes() {
+        // Given a startup load that has not delivered its rows yet
+        BlogPostsRepository repository = mock(BlogPostsRepository.class);
+        Sinks.Many<BlogPosts> rows = Sinks.many().unicast().onBackpressureBuffer();
+        when(repository.findByParams(anyMap())).thenReturn(rows.asFlux());
+        BlogSearchIndex loading = new BlogSearchIndex(repository);
+        loading.build();
+
+        // When post 1 is rewritten and post 2 unpublished before the load reads their old rows
+        loading.onBlogPostChanged(new BlogPostChangedEvent(BlogPostChangedEvent.Type.UPDATED, BlogPostsDTO.builder()
+                .id(1L).title("Reactive Spring").content("Now about coroutines").status(BlogStatus.PUBLISHED).build()));
+        loading.onBlogPostChanged(new BlogPostChangedEvent(BlogPostChangedEvent.Type.UPDATED, BlogPostsDTO.builder()
+                .id(2L).title("Gardening").content("Tomatoes").status(BlogStatus.DRAFT).build()));
+        rows.tryEmitNext(BlogPosts.builder().id(1L).title("Reactive Spring").content("About WebFlux").build());
+        rows.tryEmitNext(BlogPosts.builder().id(2L).title("Gardening").content("Tomatoes").build());
+        rows.tryEmitNext(BlogPosts.builder().id(3L).title("Cooking").content("Slow roasted tomatoes").build());
+        rows.tryEmitComplete();
+
+        // Then the events win for the posts they touched and the rest of the load is indexed
+        assertTrue(loading.search("webflux", 10).isEmpty());
+        assertEquals(List.of(1L), loading.search("coroutines", 10).stream().map(SearchHit::getId).toList());
+        assertEquals(List.of(3L), loading.search("tomatoes", 10).stream().map(SearchHit::getId).toList());
+
+        // And once the load is done, later changes apply as usual
+        loading.index(2L, "Gardening", "Tomatoes");
+        assertEquals(2, loading.search("tomatoes", 10).size());
+    }
+}
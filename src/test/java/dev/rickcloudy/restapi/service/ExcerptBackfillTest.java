@@ -0,0 +1,86 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.config.TestContainerBeanConfiguration;
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.entity.Users;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.enums.UserStatus;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import dev.rickcloudy.restapi.repository.BlogPostsSummaryCallback;
+import dev.rickcloudy.restapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test-container")
+@Import(TestContainerBeanConfiguration.class)
+class ExcerptBackfillTest {
+    @Autowired
+    private ExcerptBackfill excerptBackfill;
+    @Autowired
+    private BlogPostsRepository blogPostsRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DatabaseClient databaseClient;
+    private final Long userId = 121212416L;
+
+    @BeforeEach
+    void setUp() {
+        blogPostsRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+        userRepository.save(Users.builder()
+                .id(userId)
+                .firstName("Rickya")
+                .lastName("Cahyadi")
+                .email("excerpt.backfill@example.com")
+                .username("excerptbackfill")
+                .status(UserStatus.ACTIVE)
+                .password("Anjing123!@#")
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        blogPostsRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+    }
+
+    @Test
+    void run_Given_PostsWithoutExcerpt_Expect_SameExcerptAsOnSave() {
+        // Given a long post and a short one whose excerpts a migration cleared
+        String longContent = "\nA sentence that keeps going. ".repeat(20);
+        Long longId = save("Long Post", longContent);
+        Long shortId = save("Short Post", "  Short body\n");
+        databaseClient.sql("UPDATE blog_posts SET excerpt = NULL").fetch().rowsUpdated().block();
+
+        // When the backfill runs
+        assertEquals(2L, excerptBackfill.run().block());
+
+        // Then both excerpts are what the application computes on save: word boundary, ellipsis, trimmed
+        assertEquals(BlogPostsSummaryCallback.excerpt(longContent), blogPostsRepository.findById(longId).block().getExcerpt());
+        assertEquals("Short body", blogPostsRepository.findById(shortId).block().getExcerpt());
+        assertEquals(0L, excerptBackfill.run().block());
+    }
+
+    private Long save(String title, String content) {
+        return blogPostsRepository.save(BlogPosts.builder()
+                .title(title)
+                .content(content)
+                .authorId(userId)
+                .status(BlogStatus.PUBLISHED)
+                .createdAt(ZonedDateTime.now())
+                .build()).block().getId();
+    }
+}
@@ -0,0 +1,52 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.dto.TocEntry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownRendererTest {
+    private final MarkdownRenderer renderer = new MarkdownRenderer();
+
+    @Test
+    void render_Given_Headings_Expect_AnchoredHtmlAndTableOfContents() {
+        // Given Markdown with two headings of the same name
+        String markdown = "# Getting Started\n\nIntro\n\n## Setup\n\nOne\n\n## Setup\n\nTwo";
+
+        // When it is rendered
+        // Then every heading gets a unique id and shows up in the table of contents
+        StepVerifier.create(renderer.render(markdown))
+                .assertNext(rendered -> {
+                    assertTrue(rendered.getHtml().contains("<h1 id=\"getting-started\">Getting Started</h1>"));
+                    assertTrue(rendered.getHtml().contains("<h2 id=\"setup-1\">Setup</h2>"));
+                    assertEquals(List.of(
+                            new TocEntry(1, "Getting Started", "getting-started"),
+                            new TocEntry(2, "Setup", "setup"),
+                            new TocEntry(2, "Setup", "setup-1")), rendered.getTableOfContents());
+                    assertEquals(1, rendered.getReadingTimeMinutes());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void render_Given_RawHtmlAndScriptLink_Expect_Sanitized() {
+        String markdown = "<script>alert(1)</script>\n\n[click](javascript:alert(1))";
+
+        MarkdownRenderer.Rendered rendered = renderer.render(markdown).block();
+
+        assertNotNull(rendered);
+        assertFalse(rendered.getHtml().contains("<script>"));
+        assertFalse(rendered.getHtml().contains("javascript:"));
+    }
+
+    @Test
+    void render_Given_LongPost_Expect_ReadingTimeRoundedUp() {
+        MarkdownRenderer.Rendered rendered = renderer.render("word ".repeat(401)).block();
+
+        assertNotNull(rendered);
+        assertEquals(3, rendered.getReadingTimeMinutes());
+    }
+}
@@ -0,0 +1,101 @@
+package dev.rickcloudy.restapi.service;
+
+import dev.rickcloudy.restapi.config.TestContainerBeanConfiguration;
+import dev.rickcloudy.restapi.entity.BlogPosts;
+import dev.rickcloudy.restapi.entity.Users;
+import dev.rickcloudy.restapi.enums.BlogStatus;
+import dev.rickcloudy.restapi.enums.UserStatus;
+import dev.rickcloudy.restapi.event.BlogPostChangedEvent;
+import dev.rickcloudy.restapi.repository.BlogPostsRepository;
+import dev.rickcloudy.restapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test-container")
+@Import(TestContainerBeanConfiguration.class)
+class PublishSchedulerTest {
+    @Autowired
+    private PublishScheduler publishScheduler;
+    @Autowired
+    private BlogPostsRepository blogPostsRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ConfigurableApplicationContext context;
+    private final Long userId = 121212415L;
+
+    @BeforeEach
+    void setUp() {
+        blogPostsRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+        userRepository.save(Users.builder()
+                .id(userId)
+                .firstName("Rickya")
+                .lastName("Cahyadi")
+                .email("publish.scheduler@example.com")
+                .username("publishscheduler")
+                .status(UserStatus.ACTIVE)
+                .password("Anjing123!@#")
+                .createdAt(ZonedDateTime.now())
+                .build()).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        blogPostsRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+    }
+
+    @Test
+    void publish_Given_SameBatchFiredConcurrently_Expect_PublishedAndAnnouncedOnce() {
+        // Given a scheduled post that is due
+        Long id = blogPostsRepository.save(BlogPosts.builder()
+                .title("Due Post")
+                .content("Due Content")
+                .authorId(userId)
+                .status(BlogStatus.SCHEDULED)
+                .publishAt(ZonedDateTime.now().minusSeconds(1))
+                .createdAt(ZonedDateTime.now())
+                .build()).block().getId();
+        AtomicInteger announced = new AtomicInteger();
+        ApplicationListener<ApplicationEvent> listener = event -> {
+            if (event instanceof PayloadApplicationEvent<?> payload
+                    && payload.getPayload() instanceof BlogPostChangedEvent changed
+                    && id.equals(changed.getBlogPost().getId())) {
+                announced.incrementAndGet();
+            }
+        };
+        context.addApplicationListener(listener);
+
+        try {
+            // When two batches for it run at the same time
+            Mono.when(publishScheduler.publish(List.of(id)).subscribeOn(Schedulers.parallel()),
+                    publishScheduler.publish(List.of(id)).subscribeOn(Schedulers.parallel()))
+                    .block();
+        } finally {
+            context.removeApplicationListener(listener);
+        }
+
+        // Then it went live once and only one of them announced it
+        assertEquals(BlogStatus.PUBLISHED, blogPostsRepository.findById(id).block().getStatus());
+        assertEquals(1, announced.get());
+    }
+}
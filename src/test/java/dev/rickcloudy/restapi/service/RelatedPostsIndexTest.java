@@ -0,0 +1,56 @@
+package dev.rickcloudy.restapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelatedPostsIndexTest {
+
+    private RelatedPostsIndex indexWithPosts() {
+        RelatedPostsIndex index = new RelatedPostsIndex(2);
+        index.put(1L, "Reactive Spring", "webflux reactor netty streams backpressure");
+        index.put(2L, "Spring WebFlux in practice", "reactor netty webflux routing handlers");
+        index.put(3L, "Baking sourdough", "flour water starter oven crust");
+        index.put(4L, "Reactor operators", "reactor flux mono backpressure operators");
+        index.refreshWeights();
+        return index;
+    }
+
+    @Test
+    void topK_Given_PostsOnTwoTopics_Expect_SameTopicRankedFirst() {
+        // Given three posts about reactive Java and one about bread
+        RelatedPostsIndex index = indexWithPosts();
+
+        // When the neighbours of a reactive post are computed
+        RelatedPostsIndex.Neighbour[] related = index.topK(1L);
+
+        // Then only the other reactive posts are returned, best first
+        assertEquals(2, related.length);
+        assertTrue(Arrays.stream(related).noneMatch(neighbour -> neighbour.getPostId() == 3L));
+        assertTrue(related[0].getScore() >= related[1].getScore());
+        assertEquals(0, index.topK(3L).length);
+    }
+
+    @Test
+    void affectedBy_Given_RemovedPost_Expect_PostsListingItRecomputed() {
+        // Given neighbour lists computed for every post
+        RelatedPostsIndex index = indexWithPosts();
+        for (Long id : index.postIds()) {
+            index.setNeighbours(id, index.topK(id));
+        }
+
+        // When post 2 is about to be removed
+        Set<Long> affected = index.affectedBy(2L);
+        index.remove(2L);
+        index.refreshWeights();
+
+        // Then every post that listed it is affected, and new lists no longer contain it
+        assertTrue(affected.contains(1L));
+        assertFalse(affected.contains(3L));
+        assertTrue(Arrays.stream(index.topK(1L)).noneMatch(neighbour -> neighbour.getPostId() == 2L));
+        assertEquals(3, index.size());
+    }
+}
@@ -1,4 +1,6 @@
 -- drop_all_tables.sql
+DROP TABLE IF EXISTS `blog_image_deletions`;
+DROP TABLE IF EXISTS `blog_related`;
 DROP TABLE IF EXISTS `blog_images`;
 DROP TABLE IF EXISTS `blog_posts`;
 DROP TABLE IF EXISTS `users`;